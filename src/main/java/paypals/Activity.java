@@ -2,84 +2,385 @@ package paypals;
 
 import paypals.util.Logging;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.Map;
 
+/**
+ * Represents a shared expense: a payer and the friends who owe the payer money.
+ *
+ * <p>The friends are stored column by column in parallel arrays, one entry per friend: the name, the ID of the
+ * person in the group, the amount owed in cents, and a bit for whether the amount has been paid. This takes far
+ * less memory than an object per friend, and loops over the friends scan the arrays. {@link Person} objects for
+ * the friends are created on demand as views of these columns, so changes made through them reach the activity.</p>
+ */
 public class Activity {
+    private int id;
+    private ActivityManager manager;
     private String description;
     private Person payer;
-    // Key: name (lower-cased) and Value: name (normal-cased)
-    private HashMap<String, String> names;
-    // Key: name (normal-cased) and Value: Person object
-    private HashMap<String, Person> owed;
+    // Participant columns, where index i describes the i-th friend who owes the payer
+    private String[] friendNames;
+    // ID of each friend in the PersonRegistry of the group, or -1 while the activity is not in a group
+    private int[] friendIds;
+    private long[] friendCents;
+    private BitSet friendPaid;
+    // Number of friends who have not paid and the total they still owe, kept up to date on every change
+    private int unpaidCount;
+    private long outstandingCents;
+    // Whether the activity has changed since it was last written out by Storage
+    private boolean isDirty = true;
 
-    public Activity(String description, Person payer, HashMap<String, Double> owedMap) {
+    /**
+     * Constructs an activity from people whose amounts and payment status are already known,
+     * such as an activity read back from a save file. The values of the friends are copied into the activity.
+     *
+     * @param description the description of the activity
+     * @param payer       the person who paid for the activity
+     * @param friends     the people who owe the payer, each with their amount and payment status
+     */
+    public Activity(String description, Person payer, Collection<Person> friends) {
         this.description = description;
         this.payer = payer;
-        this.names = new HashMap<>();
-        this.owed = new HashMap<>();
+        setFriends(friends);
+    }
+
+    private void allocateFriends(int count) {
+        friendNames = new String[count];
+        friendIds = new int[count];
+        friendCents = new long[count];
+        friendPaid = new BitSet(count);
+        unpaidCount = 0;
+        outstandingCents = 0;
+    }
+
+    private void setFriend(int index, String name, long cents, boolean hasPaid) {
+        friendNames[index] = name;
+        friendIds[index] = -1;
+        friendCents[index] = cents;
+        friendPaid.set(index, hasPaid);
+        if (!hasPaid) {
+            unpaidCount++;
+            outstandingCents += cents;
+        }
+    }
+
+    private void setFriends(Collection<Person> friends) {
+        // The values are read before the columns are replaced, in case the friends are views of this activity
+        String[] names = new String[friends.size()];
+        long[] cents = new long[names.length];
+        boolean[] hasPaid = new boolean[names.length];
+        int i = 0;
+        for (Person friend : friends) {
+            names[i] = friend.getName();
+            cents[i] = friend.getMoney().getCents();
+            hasPaid[i] = friend.hasPaid();
+            i++;
+        }
+        allocateFriends(names.length);
+        for (i = 0; i < names.length; i++) {
+            setFriend(i, names[i], cents[i], hasPaid[i]);
+        }
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    void setId(int id) {
+        this.id = id;
+    }
+
+    void setManager(ActivityManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Registers the payer and every friend in the registry of the group, so that they can be found by ID.
+     * The names of the people are replaced with the instances stored in the registry.
+     *
+     * @param registry the registry of the group
+     */
+    void registerPeople(PersonRegistry registry) {
+        payer.register(registry);
+        for (int i = 0; i < friendNames.length; i++) {
+            friendNames[i] = registry.intern(friendNames[i]);
+            friendIds[i] = registry.register(friendNames[i]);
+        }
+    }
+
+    /**
+     * Clears the IDs of the people, such as when the activity is removed from its group.
+     */
+    void unregisterPeople() {
+        payer.unregister();
+        Arrays.fill(friendIds, -1);
+    }
+
+    private PersonRegistry getRegistry() {
+        return manager == null ? null : manager.getPersonRegistry();
+    }
+
+    /**
+     * Finds the position of a friend in the participant columns. The name is looked up in the registry of the
+     * group once, after which friends are compared by ID.
+     *
+     * @param name the name of the friend, in any case
+     * @return the index of the friend, or -1 if the person does not owe money in this activity
+     */
+    private int indexOfFriend(String name) {
+        PersonRegistry registry = getRegistry();
+        if (registry != null) {
+            int personId = registry.find(name);
+            return personId < 0 ? -1 : indexOfFriend(personId);
+        }
+        String lowercaseName = name.toLowerCase();
+        for (int i = 0; i < friendNames.length; i++) {
+            if (friendNames[i].toLowerCase().equals(lowercaseName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the position of a friend in the participant columns.
+     *
+     * @param personId the ID of the person in the group
+     * @return the index of the friend, or -1 if the person does not owe money in this activity
+     */
+    public int indexOfFriend(int personId) {
+        for (int i = 0; i < friendIds.length; i++) {
+            if (friendIds[i] == personId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether a person has settled this activity: the payer once every friend has paid,
+     * and a friend once they have paid.
+     *
+     * @param personId the ID of the person in the group
+     * @return true if the person has settled the activity
+     */
+    public boolean isSettledBy(int personId) {
+        if (payer.getPersonId() == personId) {
+            return unpaidCount == 0;
+        }
+        int index = indexOfFriend(personId);
+        return index >= 0 && friendPaid.get(index);
+    }
+
+    public int getFriendCount() {
+        return friendNames.length;
+    }
+
+    public String getFriendName(int index) {
+        return friendNames[index];
+    }
+
+    public int getFriendPersonId(int index) {
+        return friendIds[index];
+    }
+
+    public long getFriendCents(int index) {
+        return friendCents[index];
+    }
+
+    public boolean isFriendPaid(int index) {
+        return friendPaid.get(index);
+    }
+
+    /**
+     * Returns the number of friends who have paid what they owe.
+     */
+    public int getPaidFriendCount() {
+        return friendNames.length - unpaidCount;
+    }
+
+    /**
+     * Returns the number of friends who have not yet paid what they owe.
+     */
+    public int getUnpaidFriendCount() {
+        return unpaidCount;
+    }
 
-        Logging.logInfo("Creating Activity: " + description + " paid by " + payer.getName());
+    /**
+     * Returns the total that the friends who have not yet paid still owe the payer.
+     */
+    public Money getOutstanding() {
+        return Money.ofCents(outstandingCents);
+    }
 
-        for (Map.Entry<String, Double> entry : owedMap.entrySet()) {
-            String name = entry.getKey();
-            String lowercaseName = name.toLowerCase();
-            Double valueOwed = entry.getValue();
+    /**
+     * Renames a friend, updating the indexes and ledger of the manager holding this activity.
+     *
+     * @param index   the index of the friend
+     * @param newName the new name of the friend
+     */
+    void editFriendName(int index, String newName) {
+        if (newName.equals(friendNames[index])) {
+            return;
+        }
+        changePeople(() -> {
+            friendNames[index] = newName;
+            friendIds[index] = -1;
+        });
+    }
 
-            this.names.put(lowercaseName, name);
-            this.owed.put(name, new Person(name, valueOwed, false));
-            Logging.logInfo("Added owed person: " + name + " with amount " + valueOwed);
+    /**
+     * Changes the amount a friend owes, updating the ledger of the manager holding this activity.
+     *
+     * @param index the index of the friend
+     * @param cents the new amount in cents
+     */
+    void editFriendCents(int index, long cents) {
+        if (cents == friendCents[index]) {
+            return;
         }
+        changePeople(() -> {
+            if (!friendPaid.get(index)) {
+                outstandingCents += cents - friendCents[index];
+            }
+            friendCents[index] = cents;
+        });
+    }
+
+    /**
+     * Applies a change to the payer or the friends of the activity. The manager holding the activity takes it
+     * out of its indexes and ledger before the change and puts it back afterwards, so that they stay correct
+     * however the change is made.
+     *
+     * @param change the change to apply
+     */
+    private void changePeople(Runnable change) {
+        if (manager != null) {
+            manager.reindex(this, change);
+        } else {
+            change.run();
+        }
+        markChanged();
+    }
+
+    /**
+     * Marks a friend as paid or unpaid and notifies the manager holding this activity.
+     *
+     * @param index   the index of the friend
+     * @param hasPaid whether the friend has paid
+     */
+    void setFriendPaid(int index, boolean hasPaid) {
+        if (friendPaid.get(index) == hasPaid) {
+            return;
+        }
+        friendPaid.set(index, hasPaid);
+        unpaidCount += hasPaid ? -1 : 1;
+        outstandingCents += hasPaid ? -friendCents[index] : friendCents[index];
+        isDirty = true;
+        if (manager != null) {
+            manager.onPaymentChanged(this, index);
+        }
+    }
+
+    /**
+     * Records that the activity has changed, so that it is written out again on the next save.
+     */
+    private void markChanged() {
+        isDirty = true;
+        if (manager != null) {
+            manager.onActivityChanged();
+        }
+    }
+
+    /**
+     * Checks whether the activity has changed since {@link #markClean()} was last called.
+     *
+     * @return true if the activity has changed, or has never been written out
+     */
+    public boolean isDirty() {
+        return isDirty;
+    }
+
+    /**
+     * Records that the current state of the activity has been written out.
+     */
+    public void markClean() {
+        isDirty = false;
     }
 
     public String getDescription(){
-        Logging.logInfo("Retrieving description: " + description);
+        Logging.logFine(() -> "Retrieving description: " + description);
         return description;
     }
 
     public Person getPayer() {
-        Logging.logInfo("Retrieving payer: " + payer.getName());
+        Logging.logFine(() -> "Retrieving payer: " + payer.getName());
         return payer;
     }
 
     public Person getFriend(String name) {
-        Logging.logInfo("Looking for friend: " + name);
+        Logging.logFine(() -> "Looking for friend: " + name);
 
-        // Obtain the name in correct case from name parameter (which may have alphabets of wrong case)
-        String lowercaseName = name.toLowerCase();
-        String correctcaseName = names.get(lowercaseName);
+        int index = indexOfFriend(name);
+        return index < 0 ? null : new Person(this, index);
+    }
 
-        return owed.get(correctcaseName);
+    /**
+     * Retrieves a friend by their ID in the group.
+     *
+     * @param personId the ID of the person
+     * @return the friend, or null if the person does not owe money in this activity
+     */
+    public Person getFriend(int personId) {
+        int index = indexOfFriend(personId);
+        return index < 0 ? null : new Person(this, index);
     }
 
+    /**
+     * Retrieves every friend who owes money, in the order they were added. The friends are views of the activity,
+     * so they reflect later changes, and changes made through them are applied to the activity.
+     *
+     * @return the friends of the activity
+     */
     public Collection<Person> getAllFriends() {
-        Logging.logInfo("Retrieving all friends who owe money");
-        return owed.values();
+        Logging.logFine(() -> "Retrieving all friends who owe money");
+        ArrayList<Person> friends = new ArrayList<>(friendNames.length);
+        for (int i = 0; i < friendNames.length; i++) {
+            friends.add(new Person(this, i));
+        }
+        return friends;
     }
 
+    /**
+     * Retrieves every friend who owes money by name. The map is built on each call, so changing the map itself
+     * does not change the activity; use {@link #setOwed(HashMap)} for that.
+     *
+     * @return a map of the name (normal-cased) of each friend to the friend
+     */
     public HashMap<String, Person> getOwed() {
+        HashMap<String, Person> owed = new HashMap<>();
+        for (int i = 0; i < friendNames.length; i++) {
+            owed.put(friendNames[i], new Person(this, i));
+        }
         return owed;
     }
 
-    public HashMap<String, String> getNames() {
-        return names;
-    }
-
     @Override
     public String toString() {
         String spacing = "    ";
         String outputString = "Desc: " + description + "\n"
                 + spacing + "Payer: " + payer.getName() + "\n"
                 + spacing + "Owed by: ";
-        int personCount = 0;
-        for (String name : owed.keySet()) {
-            outputString += name;
-            if (personCount++ < owed.size() - 1) {
+        for (int i = 0; i < friendNames.length; i++) {
+            outputString += friendNames[i];
+            if (i < friendNames.length - 1) {
                 outputString += ", ";
             }
         }
-        Logging.logInfo("Generated string representation of Activity: " + description);
+        Logging.logFine(() -> "Generated string representation of Activity: " + description);
         return outputString;
     }
 
@@ -92,12 +393,12 @@ public class Activity {
      */
     public String toStorageString(String separator) {
         String data = this.description + separator;
-        data += payer.getName() + separator + payer.getAmount() + separator + payer.hasPaid() + separator;
-        for (Map.Entry<String, Person> entry : owed.entrySet()) {
-            Person person = entry.getValue();
-            data += person.getName() + separator + person.getAmount() + separator + person.hasPaid() + separator;
+        data += payer.getName() + separator + payer.getMoney() + separator + payer.hasPaid() + separator;
+        for (int i = 0; i < friendNames.length; i++) {
+            data += friendNames[i] + separator + Money.ofCents(friendCents[i]) + separator + friendPaid.get(i)
+                    + separator;
         }
-        Logging.logInfo("Converted Activity to storage format: " + description);
+        Logging.logFine(() -> "Converted Activity to storage format: " + description);
         return data;
     }
 
@@ -107,48 +408,43 @@ public class Activity {
      * @param owed the new map of people who owe money
      */
     public void setOwed(HashMap<String, Person> owed) {
-        Logging.logInfo("Updating owed list for activity: " + description);
-        this.owed = owed;
+        Logging.logFine(() -> "Updating owed list for activity: " + description);
+        changePeople(() -> setFriends(owed.values()));
     }
 
     public void editDesc(String newDesc) {
+        if (newDesc.equals(description)) {
+            return;
+        }
         this.description = newDesc;
+        markChanged();
     }
 
     public void editPayer(String newPayer) {
-        this.payer.editName(newPayer);
+        if (newPayer.equals(payer.getName())) {
+            return;
+        }
+        changePeople(() -> payer.editName(newPayer));
     }
 
     public String editOwedName(String name, String newName) {
-        String lowercaseName = name.toLowerCase();
-        String lowercaseNewName = newName.toLowerCase();
-        // Old name (in correct case) to be returned
-        String oldName = names.get(lowercaseName);
-
-        // Remove and add the Person object into owed HashMap after changing name (normal-case)
-        Person newPerson = this.owed.remove(name);
-        if (newPerson != null) {
-            newPerson.editName(newName);
-            this.owed.put(newName, newPerson);
+        int index = indexOfFriend(name);
+        if (index < 0) {
+            return null;
         }
-
-        // Remove old name and add the new name into names HashMap
-        this.names.remove(lowercaseName);
-        this.names.put(lowercaseNewName, newName);
-
+        // Old name (in correct case) to be returned
+        String oldName = friendNames[index];
+        editFriendName(index, newName);
         return oldName;
     }
 
-    public void editOwedAmount(String name, double newAmount) {
-        // Obtain the name in correct case from name parameter (which may have alphabets of wrong case)
-        String lowercaseName = name.toLowerCase();
-        String correctcaseName = names.get(lowercaseName);
-
-        this.owed.get(correctcaseName).editAmount(newAmount);
+    public void editOwedAmount(String name, Money newAmount) {
+        editFriendCents(indexOfFriend(name), newAmount.getCents());
     }
 
     /**
-     * Checks whether the activity is fully paid.
+     * Checks whether the activity is fully paid. The check takes constant time, as the number of friends
+     * who have not paid is kept by the activity.
      *
      * <p>If {@code checkAllPayer} is {@code true}, it checks if all people have paid their dues.
      * Otherwise, it checks if the specified person has paid their dues.</p>
@@ -158,18 +454,10 @@ public class Activity {
      * @return {@code true} if the activity is fully paid, {@code false} otherwise
      */
     public boolean isActivityFullyPaid(String name, boolean checkAllPayer) {
-        String lowercaseName = name.toLowerCase();
-        String lowercasePayer = payer.getName().toLowerCase();
-
-        if (checkAllPayer || lowercasePayer.equals(lowercaseName)) {
-            for (Person friend : owed.values()) {
-                if (!friend.hasPaid()) {
-                    return false;
-                }
-            }
-            return true;
+        if (checkAllPayer || payer.getName().toLowerCase().equals(name.toLowerCase())) {
+            return unpaidCount == 0;
         }
-        return getFriend(name).hasPaid();
+        return friendPaid.get(indexOfFriend(name));
     }
 
 }
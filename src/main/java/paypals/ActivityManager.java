@@ -1,17 +1,33 @@
 package paypals;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 
 public class ActivityManager {
     private String groupName;
 
     private boolean isNewGroup;
 
-    private ArrayList<Activity> activities;
+    // Activities in the order they are listed to the user, each findable by stable ID
+    private ActivityTable activities;
+    // Every person in the group, with the dense ID that the indexes below are keyed by
+    private PersonRegistry people;
+    // Index: person ID and Value: activities the person pays for or owes in, split by whether the person settled them
+    private ArrayList<PersonActivityIndex> activitiesByPerson;
+    // Index: person ID and Value: net balance in cents, positive if the person is owed money
+    private long[] balances;
+    private int nextActivityId;
+    // Increased by every change to the activities, so that callers can tell whether anything has changed
+    private long version;
 
     public ActivityManager() {
-        activities = new ArrayList<>();
+        activities = new ActivityTable();
+        people = new PersonRegistry();
+        activitiesByPerson = new ArrayList<>();
+        balances = new long[0];
+        nextActivityId = 1;
     }
 
     public String getGroupName() {
@@ -27,8 +43,18 @@ public class ActivityManager {
         this.isNewGroup = newGroup;
     }
 
+    /**
+     * Adds an activity to the end of the list and assigns it a stable ID.
+     * The ID does not change when other activities are deleted, unlike the position of the activity.
+     *
+     * @param activity the activity to add
+     */
     public void addActivity(Activity activity) {
+        activity.setId(nextActivityId++);
         activities.add(activity);
+        activity.setManager(this);
+        addToIndexes(activity);
+        version++;
     }
 
     public int getSize() {
@@ -39,12 +65,100 @@ public class ActivityManager {
         return activities.get(id);
     }
 
+    /**
+     * Retrieves an activity by the stable ID assigned when it was added.
+     *
+     * @param activityId the stable ID of the activity
+     * @return the activity, or null if no such activity exists
+     */
+    public Activity getActivityById(int activityId) {
+        return activities.getById(activityId);
+    }
+
+    /**
+     * Deletes the activity at a position in the list. The deleted activity only leaves an empty slot behind,
+     * so no other activity is moved, and the per-person indexes, which are keyed by stable ID, stay valid.
+     *
+     * @param id the position of the activity, starting from 0
+     */
     public void deleteActivity(int id) {
-        activities.remove(id);
+        Activity activity = activities.remove(id);
+        removeFromIndexes(activity);
+        activity.setManager(null);
+        activity.unregisterPeople();
+        version++;
+    }
+
+    /**
+     * Removes every activity, such as when switching to another group.
+     */
+    public void clear() {
+        for (Activity activity : activities.getActivities()) {
+            activity.setManager(null);
+            activity.unregisterPeople();
+        }
+        activities.clear();
+        people = new PersonRegistry();
+        activitiesByPerson.clear();
+        balances = new long[0];
+        nextActivityId = 1;
+        version++;
+    }
+
+    /**
+     * Moves every activity, together with the indexes and ledger built from them, into another manager,
+     * leaving this one empty. Nothing is copied or recomputed, so this is much cheaper than adding the
+     * activities to the other manager one by one.
+     *
+     * @param target the manager to move the activities into, whose own activities are removed
+     */
+    public void moveActivitiesTo(ActivityManager target) {
+        target.clear();
+        target.activities = activities;
+        target.people = people;
+        target.activitiesByPerson = activitiesByPerson;
+        target.balances = balances;
+        target.nextActivityId = nextActivityId;
+        for (Activity activity : target.activities.getActivities()) {
+            activity.setManager(target);
+        }
+
+        activities = new ActivityTable();
+        people = new PersonRegistry();
+        activitiesByPerson = new ArrayList<>();
+        balances = new long[0];
+        nextActivityId = 1;
+        version++;
     }
 
-    public ArrayList<Activity> getActivityList() {
-        return this.activities;
+    /**
+     * Retrieves the version of the activities, which increases whenever an activity is added, deleted or changed.
+     * Two equal versions read from the same manager mean that nothing has changed in between.
+     *
+     * @return the current version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Records that one of the activities has been edited.
+     */
+    void onActivityChanged() {
+        version++;
+    }
+
+    PersonRegistry getPersonRegistry() {
+        return people;
+    }
+
+    /**
+     * Retrieves every activity in the order they are listed, as a read-only view that reflects later changes.
+     *
+     * @return the activities
+     */
+    public List<Activity> getActivityList() {
+        return activities.getActivities();
     }
 
     public void editActivityDesc(int activityId, String newDesc) {
@@ -59,44 +173,267 @@ public class ActivityManager {
         return activities.get(activityId).editOwedName(name, newName);
     }
 
-    public void editActivityOwedAmount(int activityId, String name, double newAmount) {
+    public void editActivityOwedAmount(int activityId, String name, Money newAmount) {
         activities.get(activityId).editOwedAmount(name, newAmount);
     }
 
-    public static ArrayList<Activity> getActivities(String name, ArrayList<Activity> allActivities) {
-        String lowercaseName = name.toLowerCase();
-        ArrayList<Activity> personActivities = new ArrayList<>();
-
-        for (Activity activity : allActivities) {
-            String lowercasePayer = activity.getPayer().getName().toLowerCase();
+    /**
+     * Applies a change to the payer or the friends of an activity, taking the activity out of the per-person
+     * index and the ledger before the change and adding it back afterwards.
+     *
+     * @param activity the activity to change
+     * @param change   the change to apply
+     */
+    void reindex(Activity activity, Runnable change) {
+        removeFromIndexes(activity);
+        change.run();
+        addToIndexes(activity);
+    }
 
-            if (lowercasePayer.equals(lowercaseName)) {
-                personActivities.add(activity);
-            } else {
-                HashMap<String, String> names = activity.getNames();
-                HashMap<String, Person> owed = activity.getOwed();
+    /**
+     * Retrieves the net balance of a person across all activities, counting only unpaid amounts.
+     * The balance is read from a ledger that is kept up to date on every change, so no activity is scanned.
+     *
+     * @param name the name of the person (case-insensitive)
+     * @return the net balance, positive if the person is owed money and negative if the person owes money
+     */
+    public Money getNetBalance(String name) {
+        int personId = people.find(name);
+        return Money.ofCents(personId < 0 ? 0 : getBalance(personId));
+    }
 
-                if (names.containsKey(lowercaseName)) {
-                    personActivities.add(activity);
-                }
+    /**
+     * Retrieves the net balance of every person whose balance is not zero.
+     *
+     * @return a map of each person's name (lower-cased) to their net balance
+     */
+    public HashMap<String, Money> getNetBalances() {
+        HashMap<String, Money> netBalances = new HashMap<>();
+        for (int personId = 0; personId < balances.length; personId++) {
+            if (balances[personId] != 0) {
+                netBalances.put(people.getKey(personId), Money.ofCents(balances[personId]));
             }
         }
+        return netBalances;
+    }
+
+    /**
+     * Checks whether a person pays for or owes money in any activity.
+     *
+     * @param name the name of the person (case-insensitive)
+     * @return true if at least one activity involves the person
+     */
+    public boolean hasPerson(String name) {
+        return getPersonActivities(people.find(name)) != null;
+    }
+
+    /**
+     * Retrieves the name of a person as it was written in the most recent activity in which the person
+     * is the payer or still owes money.
+     *
+     * @param lowercaseName the name of the person (lower-cased)
+     * @return the name in its most recent case, or the given name if the person cannot be found
+     */
+    public String getDisplayName(String lowercaseName) {
+        int personId = people.find(lowercaseName);
+        PersonActivityIndex personActivities = getPersonActivities(personId);
+        if (personActivities == null) {
+            return lowercaseName;
+        }
+        Activity latest = personActivities.findLast(activity -> activity.getPayer().getPersonId() == personId
+                || !activity.isFriendPaid(activity.indexOfFriend(personId)));
+        if (latest == null) {
+            return lowercaseName;
+        }
+        if (latest.getPayer().getPersonId() == personId) {
+            return latest.getPayer().getName();
+        }
+        return latest.getFriendName(latest.indexOfFriend(personId));
+    }
+
+    /**
+     * Updates the ledger after a friend in one of the activities is marked as paid or unpaid.
+     *
+     * @param activity the activity containing the friend
+     * @param index    the index of the friend whose payment status has changed
+     */
+    void onPaymentChanged(Activity activity, int index) {
+        version++;
+        long cents = activity.getFriendCents(index);
+        long change = activity.isFriendPaid(index) ? cents : -cents;
+        addToBalance(activity.getFriendPersonId(index), change);
+        addToBalance(activity.getPayer().getPersonId(), -change);
+        updateSettled(activity.getFriendPersonId(index), activity);
+        updateSettled(activity.getPayer().getPersonId(), activity);
+    }
+
+    /**
+     * Retrieves the activities that a person pays for or owes money in, in the order they are listed.
+     * The lookup uses the per-person index, so its cost depends only on the number of activities of that person.
+     *
+     * @param name the name of the person (case-insensitive)
+     * @return the activities involving the person
+     */
+    public ArrayList<Activity> getActivities(String name) {
+        PersonActivityIndex personActivities = getPersonActivities(people.find(name));
+        if (personActivities == null) {
+            return new ArrayList<>();
+        }
+        return personActivities.getActivities();
+    }
+
+    /**
+     * Retrieves the activities that a person has or has not settled, in the order they are listed.
+     * Whether the person has settled each activity is kept in the per-person index, so no activity is checked.
+     *
+     * @param name      the name of the person (case-insensitive)
+     * @param isSettled whether to retrieve the settled activities instead of the unsettled ones
+     * @return the activities involving the person that match
+     */
+    public ArrayList<Activity> getActivities(String name, boolean isSettled) {
+        PersonActivityIndex personActivities = getPersonActivities(people.find(name));
+        if (personActivities == null) {
+            return new ArrayList<>();
+        }
+        return personActivities.getActivities(isSettled);
+    }
 
-        return personActivities;
+    /**
+     * Retrieves the K-th activity, in the order they are listed, that a person has not yet settled.
+     *
+     * @param name the name of the person (case-insensitive)
+     * @param rank the position of the activity among the unsettled ones, starting from 0
+     * @return the activity, or null if the person has fewer unsettled activities
+     */
+    public Activity getUnpaidActivity(String name, int rank) {
+        PersonActivityIndex personActivities = getPersonActivities(people.find(name));
+        return personActivities == null ? null : personActivities.get(false, rank);
     }
 
+    /**
+     * Retrieves the K-th activity, in the order they are listed, that a person has settled.
+     *
+     * @param name the name of the person (case-insensitive)
+     * @param rank the position of the activity among the settled ones, starting from 0
+     * @return the activity, or null if the person has fewer settled activities
+     */
+    public Activity getPaidActivity(String name, int rank) {
+        PersonActivityIndex personActivities = getPersonActivities(people.find(name));
+        return personActivities == null ? null : personActivities.get(true, rank);
+    }
+
+    /**
+     * Retrieves the identifier of an activity in the list of activities a person has not yet settled.
+     *
+     * @param activity the activity
+     * @param name     the name of the person (case-insensitive)
+     * @return the identifier starting from 1, or -1 if the person has settled the activity or is not in it
+     */
     public int getIdentifierFromUnpaidList(Activity activity, String name) {
-        ArrayList<Activity> personActivities = getActivities(name, activities);
-        int identifier = 1;
-        for (Activity personActivity : personActivities) {
-            if (!personActivity.isActivityFullyPaid(name, false)) {
-                if (personActivity.equals(activity)) {
-                    return identifier;
-                }
-                identifier++;
+        PersonActivityIndex personActivities = getPersonActivities(people.find(name));
+        int rank = personActivities == null ? -1 : personActivities.rankOf(activity, false);
+        return rank < 0 ? -1 : rank + 1;
+    }
+
+    /**
+     * Registers the people of an activity, so that they have up-to-date IDs, and adds the activity
+     * to the per-person index and the ledger.
+     */
+    private void addToIndexes(Activity activity) {
+        activity.registerPeople(people);
+        indexActivity(activity);
+        applyToLedger(activity, 1);
+    }
+
+    private void removeFromIndexes(Activity activity) {
+        unindexActivity(activity);
+        applyToLedger(activity, -1);
+    }
+
+    /**
+     * Adds (or with a negative sign, removes) the unpaid amounts of an activity to the ledger.
+     *
+     * @param activity the activity to apply
+     * @param sign     1 to add the activity, -1 to remove it
+     */
+    private void applyToLedger(Activity activity, int sign) {
+        if (activity.getUnpaidFriendCount() == 0) {
+            return;
+        }
+        addToBalance(activity.getPayer().getPersonId(), sign * activity.getOutstanding().getCents());
+        for (int i = 0; i < activity.getFriendCount(); i++) {
+            if (!activity.isFriendPaid(i)) {
+                addToBalance(activity.getFriendPersonId(i), -sign * activity.getFriendCents(i));
             }
         }
-        return -1;
+    }
+
+    private long getBalance(int personId) {
+        return personId < balances.length ? balances[personId] : 0;
+    }
+
+    private void addToBalance(int personId, long cents) {
+        if (personId >= balances.length) {
+            balances = Arrays.copyOf(balances, Math.max(people.size(), balances.length * 2));
+        }
+        balances[personId] += cents;
+    }
+
+    /**
+     * Retrieves the activities of a person from the per-person index.
+     *
+     * @param personId the ID of the person, or -1 for an unknown person
+     * @return the activities of the person, or null if the person is in no activity
+     */
+    private PersonActivityIndex getPersonActivities(int personId) {
+        if (personId < 0 || personId >= activitiesByPerson.size()) {
+            return null;
+        }
+        return activitiesByPerson.get(personId);
+    }
+
+    private void indexActivity(Activity activity) {
+        indexPerson(activity.getPayer().getPersonId(), activity);
+        for (int i = 0; i < activity.getFriendCount(); i++) {
+            indexPerson(activity.getFriendPersonId(i), activity);
+        }
+    }
+
+    private void unindexActivity(Activity activity) {
+        unindexPerson(activity.getPayer().getPersonId(), activity);
+        for (int i = 0; i < activity.getFriendCount(); i++) {
+            unindexPerson(activity.getFriendPersonId(i), activity);
+        }
+    }
+
+    private void indexPerson(int personId, Activity activity) {
+        while (activitiesByPerson.size() <= personId) {
+            activitiesByPerson.add(null);
+        }
+        PersonActivityIndex personActivities = activitiesByPerson.get(personId);
+        if (personActivities == null) {
+            personActivities = new PersonActivityIndex();
+            activitiesByPerson.set(personId, personActivities);
+        }
+        personActivities.add(activity, activity.isSettledBy(personId));
+    }
+
+    private void unindexPerson(int personId, Activity activity) {
+        PersonActivityIndex personActivities = getPersonActivities(personId);
+        if (personActivities == null) {
+            return;
+        }
+        personActivities.remove(activity);
+        if (personActivities.isEmpty()) {
+            activitiesByPerson.set(personId, null);
+        }
+    }
+
+    private void updateSettled(int personId, Activity activity) {
+        PersonActivityIndex personActivities = getPersonActivities(personId);
+        if (personActivities != null) {
+            personActivities.setSettled(activity, activity.isSettledBy(personId));
+        }
     }
 
 }
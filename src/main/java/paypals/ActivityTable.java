@@ -0,0 +1,200 @@
+package paypals;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Holds the activities of a group in the order they were added, each in a slot that does not move when
+ * other activities are deleted.
+ *
+ * <p>Deleting an activity only empties its slot, so nothing after it is shifted. A Fenwick tree over the slots
+ * counts the activities still in them, which finds the activity at a given position in the list in logarithmic
+ * time, and a map from stable activity ID to slot finds an activity by ID in constant time. The slots are
+ * compacted once more than half of them are empty. Compacting takes time in proportion to the activities left,
+ * and at least as many deletes come before it, so a delete takes logarithmic time on average. Reading the
+ * whole list goes through a view that skips the empty slots, so it neither copies nor compacts the table.</p>
+ */
+public class ActivityTable {
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Activities in the order they were added, with null in the slots of deleted activities
+    private final ArrayList<Activity> slots = new ArrayList<>();
+    // Key: stable activity ID and Value: slot of the activity
+    private final HashMap<Integer, Integer> slotsById = new HashMap<>();
+    // Fenwick tree over the slots (1-based), counting the slots that hold an activity
+    private int[] liveTree = new int[INITIAL_CAPACITY + 1];
+    private int size;
+    // Read-only view of the activities in the order they are listed
+    private final List<Activity> view = new AbstractList<>() {
+        @Override
+        public Activity get(int index) {
+            return ActivityTable.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<Activity> iterator() {
+            return new Iterator<>() {
+                private int slot = nextFullSlot(0);
+
+                @Override
+                public boolean hasNext() {
+                    return slot < slots.size();
+                }
+
+                @Override
+                public Activity next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Activity activity = slots.get(slot);
+                    slot = nextFullSlot(slot + 1);
+                    return activity;
+                }
+            };
+        }
+    };
+
+    /**
+     * Adds an activity at the end of the list.
+     *
+     * @param activity the activity to add, which must already have its stable ID
+     */
+    public void add(Activity activity) {
+        int position = slots.size() + 1;
+        if (position >= liveTree.length) {
+            liveTree = Arrays.copyOf(liveTree, liveTree.length * 2);
+        }
+        // Every slot before the new one is counted up to it, and the new node covers the range given by its
+        // lowest set bit
+        int start = position - (position & -position);
+        liveTree[position] = size - prefixSum(start) + 1;
+        slotsById.put(activity.getId(), slots.size());
+        slots.add(activity);
+        size++;
+    }
+
+    /**
+     * Retrieves the activity at a position in the list.
+     *
+     * @param index the position of the activity, starting from 0
+     * @return the activity
+     * @throws IndexOutOfBoundsException if there is no activity at that position
+     */
+    public Activity get(int index) {
+        return slots.get(findSlot(index));
+    }
+
+    /**
+     * Retrieves an activity by its stable ID.
+     *
+     * @param activityId the stable ID of the activity
+     * @return the activity, or null if no such activity exists
+     */
+    public Activity getById(int activityId) {
+        Integer slot = slotsById.get(activityId);
+        return slot == null ? null : slots.get(slot);
+    }
+
+    /**
+     * Deletes the activity at a position in the list. The activities after it move up by one position,
+     * but keep their slots.
+     *
+     * @param index the position of the activity, starting from 0
+     * @return the deleted activity
+     * @throws IndexOutOfBoundsException if there is no activity at that position
+     */
+    public Activity remove(int index) {
+        int slot = findSlot(index);
+        Activity activity = slots.set(slot, null);
+        slotsById.remove(activity.getId());
+        for (int position = slot + 1; position <= slots.size(); position += position & -position) {
+            liveTree[position]--;
+        }
+        size--;
+        if (slots.size() > INITIAL_CAPACITY && size < slots.size() / 2) {
+            compact();
+        }
+        return activity;
+    }
+
+    /**
+     * Returns every activity in the order they are listed, as a read-only view of the table. Iterating over
+     * the view skips the empty slots, while looking up a position in it takes logarithmic time.
+     *
+     * @return the activities
+     */
+    public List<Activity> getActivities() {
+        return view;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        slots.clear();
+        slotsById.clear();
+        liveTree = new int[INITIAL_CAPACITY + 1];
+        size = 0;
+    }
+
+    private int nextFullSlot(int slot) {
+        while (slot < slots.size() && slots.get(slot) == null) {
+            slot++;
+        }
+        return slot;
+    }
+
+    /**
+     * Finds the slot holding the activity at a position in the list, by descending the tree for the last slot
+     * before which there are at most that many activities.
+     */
+    private int findSlot(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int position = 0;
+        int remaining = index;
+        for (int step = Integer.highestOneBit(slots.size()); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= slots.size() && liveTree[next] <= remaining) {
+                position = next;
+                remaining -= liveTree[next];
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Drops the empty slots, then rebuilds the map of slots and the tree, which are all full afterwards.
+     */
+    private void compact() {
+        slots.removeIf(activity -> activity == null);
+        slotsById.clear();
+        liveTree = new int[Math.max(INITIAL_CAPACITY, Integer.highestOneBit(size) * 2) + 1];
+        for (int slot = 0; slot < size; slot++) {
+            slotsById.put(slots.get(slot).getId(), slot);
+            // A full slot range of length lowbit holds exactly that many activities
+            int position = slot + 1;
+            liveTree[position] = position & -position;
+        }
+    }
+
+    private int prefixSum(int count) {
+        int sum = 0;
+        for (int position = count; position > 0; position -= position & -position) {
+            sum += liveTree[position];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,145 @@
+package paypals;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Represents an amount of money as a whole number of cents.
+ *
+ * <p>Amounts are added and compared exactly, so balances never drift the way sums of doubles do.
+ * Money objects are immutable.</p>
+ */
+public final class Money implements Comparable<Money> {
+    public static final Money ZERO = new Money(0);
+    /** The largest amount a person can owe in a single activity. */
+    public static final Money LARGE_AMOUNT_LIMIT = new Money(10000 * 100);
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Parses an amount in dollars, such as "12.5" or "-3.05", without going through a double.
+     * Digits after the second decimal place are rounded half up.
+     *
+     * @param amount the amount in dollars
+     * @return the money
+     * @throws NumberFormatException if the string is not a number or the amount is too large
+     */
+    public static Money parse(String amount) {
+        try {
+            BigDecimal dollars = new BigDecimal(amount.trim());
+            return ofCents(dollars.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact());
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: " + amount);
+        }
+    }
+
+    /**
+     * Checks that an amount is written as a whole number with up to 2 decimal places, such as "12" or "-3.05".
+     *
+     * @param amount the amount to check
+     * @return true if the amount is in this format
+     */
+    public static boolean isValidFormat(String amount) {
+        int length = amount.length();
+        int i = amount.startsWith("-") ? 1 : 0;
+        int integerStart = i;
+        while (i < length && isDigit(amount.charAt(i))) {
+            i++;
+        }
+        if (i == integerStart) {
+            return false;
+        }
+        if (i == length) {
+            return true;
+        }
+        int decimals = length - i - 1;
+        if (amount.charAt(i) != '.' || decimals < 1 || decimals > 2) {
+            return false;
+        }
+        for (int j = i + 1; j < length; j++) {
+            if (!isDigit(amount.charAt(j))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    public long getCents() {
+        return cents;
+    }
+
+    public Money plus(Money other) {
+        return ofCents(cents + other.cents);
+    }
+
+    public Money minus(Money other) {
+        return ofCents(cents - other.cents);
+    }
+
+    public Money negate() {
+        return ofCents(-cents);
+    }
+
+    public Money abs() {
+        return cents < 0 ? negate() : this;
+    }
+
+    /**
+     * Divides the money into equal parts, rounding each part to the nearest cent (half to even).
+     *
+     * @param parts the number of parts
+     * @return the money in each part
+     */
+    public Money divide(int parts) {
+        return ofCents(BigDecimal.valueOf(cents).divide(BigDecimal.valueOf(parts), 0, RoundingMode.HALF_EVEN)
+                .longValueExact());
+    }
+
+    public boolean isZero() {
+        return cents == 0;
+    }
+
+    public boolean isPositive() {
+        return cents > 0;
+    }
+
+    public boolean isNegative() {
+        return cents < 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money && ((Money) other).cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    /**
+     * Formats the money in dollars with exactly two decimal places, such as "12.50" or "-3.05".
+     */
+    @Override
+    public String toString() {
+        long absoluteCents = Math.abs(cents);
+        return (cents < 0 ? "-" : "") + absoluteCents / 100 + "." + String.format("%02d", absoluteCents % 100);
+    }
+}
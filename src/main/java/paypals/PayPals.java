@@ -4,15 +4,20 @@ import paypals.commands.AddCommand;
 import paypals.commands.Command;
 import paypals.commands.DeleteCommand;
 import paypals.commands.EditCommand;
+import paypals.commands.ImportCommand;
 import paypals.commands.PaidCommand;
 import paypals.commands.UnpaidCommand;
 import paypals.exception.PayPalsException;
+import paypals.util.AsyncLogHandler;
 import paypals.util.Group;
 import paypals.util.Parser;
 import paypals.util.Storage;
 import paypals.util.UI;
 import paypals.util.Logging;
 
+import java.util.Arrays;
+import java.util.List;
+
 public class PayPals {
     private static Parser parser;
     private static ActivityManager activityManager;
@@ -21,12 +26,36 @@ public class PayPals {
     private static Group group;
 
     public PayPals() {
+        this(false);
+    }
+
+    /**
+     * Constructs the application.
+     *
+     * @param isJournaled whether changes should be appended to a journal instead of rewriting the group file
+     */
+    public PayPals(boolean isJournaled) {
+        this(isJournaled, false, false, null);
+    }
+
+    /**
+     * Constructs the application.
+     *
+     * @param isJournaled            whether changes should be appended to a journal instead of rewriting the
+     *                               group file
+     * @param isBinaryStorage        whether group files should be written in the compact binary format
+     * @param isWriteBehind          whether group files should be saved in the background after each change
+     * @param asyncLogOverflowPolicy what to do with a log record when the background log writer falls behind,
+     *                               or null to write the log synchronously
+     */
+    public PayPals(boolean isJournaled, boolean isBinaryStorage, boolean isWriteBehind,
+            AsyncLogHandler.OverflowPolicy asyncLogOverflowPolicy) {
         try {
-            new Logging();
+            new Logging(asyncLogOverflowPolicy);
             ui = new UI(true);
             parser = new Parser();
             activityManager = new ActivityManager();
-            storage = new Storage();
+            storage = new Storage(isJournaled, isBinaryStorage, isWriteBehind);
             new Group(ui, storage, activityManager);
         } catch (PayPalsException e) {
             System.out.println(e.getMessage());
@@ -46,20 +75,43 @@ public class PayPals {
                 String fullCommand = ui.readLine();
                 ui.printLine();
                 Command c = parser.decodeCommand(fullCommand);
+                long version = activityManager.getVersion();
                 c.execute(activityManager, true);
                 isExit = c.isExit();
+                if (activityManager.getVersion() == version) {
+                    // The command changed nothing, so there is nothing to persist
+                    continue;
+                }
                 if (c instanceof AddCommand || c instanceof EditCommand || c instanceof DeleteCommand
                         || c instanceof PaidCommand || c instanceof UnpaidCommand) {
+                    storage.persist(fullCommand, activityManager);
+                } else if (c instanceof ImportCommand) {
+                    // The imported commands are not journaled one by one, so save the group once in full
                     storage.save(activityManager);
                 }
             } catch (PayPalsException e) {
                 System.out.println(e.getMessage());
             }
         }
+        try {
+            storage.close();
+        } catch (PayPalsException e) {
+            System.out.println(e.getMessage());
+        }
         ui.sayGoodbye();
     }
 
     public static void main(String[] args) {
-        new PayPals().run();
+        List<String> options = Arrays.asList(args);
+        boolean isJournaled = options.contains("--journal");
+        boolean isBinaryStorage = options.contains("--binary");
+        boolean isWriteBehind = options.contains("--write-behind");
+        AsyncLogHandler.OverflowPolicy asyncLogOverflowPolicy = null;
+        if (options.contains("--async-log")) {
+            asyncLogOverflowPolicy = AsyncLogHandler.OverflowPolicy.DROP;
+        } else if (options.contains("--async-log=block")) {
+            asyncLogOverflowPolicy = AsyncLogHandler.OverflowPolicy.BLOCK;
+        }
+        new PayPals(isJournaled, isBinaryStorage, isWriteBehind, asyncLogOverflowPolicy).run();
     }
 }
@@ -1,54 +1,125 @@
 package paypals;
 
+/**
+ * Represents a person in an activity, with the amount they owe and whether they have paid it.
+ *
+ * <p>A person is either standalone, holding its own values, or a view of a friend in the participant columns
+ * of an {@link Activity}, in which case every read and change goes through to the activity.</p>
+ */
 public class Person {
+    // The activity whose participant columns hold this person, or null if the person holds its own values
+    private final Activity activity;
+    // Index of the person in the participant columns of the activity
+    private final int index;
     private String name;
-    private double amount;
+    private Money amount;
     private boolean hasPaid;
+    // ID of the person in the PersonRegistry of the group, or -1 while the activity is not in a group
+    private int personId = -1;
 
-    public Person(String name, double amount, boolean hasPaid) {
+    public Person(String name, Money amount, boolean hasPaid) {
+        this.activity = null;
+        this.index = -1;
         this.name = name;
         this.amount = amount;
         this.hasPaid = hasPaid;
     }
 
+    /**
+     * Constructs a view of a friend in the participant columns of an activity.
+     *
+     * @param activity the activity the friend owes money in
+     * @param index    the index of the friend in the activity
+     */
+    Person(Activity activity, int index) {
+        this.activity = activity;
+        this.index = index;
+    }
+
     public String getName() {
-        return name;
+        return activity != null ? activity.getFriendName(index) : name;
     }
 
+    /**
+     * Renames the person. For a friend in an activity, the activity and the indexes of its group are updated.
+     *
+     * @param name the new name
+     */
     public void editName(String name) {
+        if (activity != null) {
+            activity.editFriendName(index, name);
+            return;
+        }
         this.name = name;
+        this.personId = -1;
     }
 
-    public void editAmount(double amount) {
-        this.amount = amount;
+    /**
+     * Retrieves the ID of the person in the group, which is the same for every spelling of their name.
+     *
+     * @return the ID of the person, or -1 if the activity of the person is not in a group
+     */
+    public int getPersonId() {
+        return activity != null ? activity.getFriendPersonId(index) : personId;
     }
 
-    public double getAmount() {
-        return amount;
+    /**
+     * Registers the person in the registry of a group, replacing their name with the stored instance of it.
+     *
+     * @param registry the registry of the group
+     */
+    void register(PersonRegistry registry) {
+        this.name = registry.intern(name);
+        this.personId = registry.register(name);
     }
 
-    public void addAmount(double amount) {
-        this.amount += amount;
+    void unregister() {
+        this.personId = -1;
+    }
+
+    /**
+     * Changes the amount the person owes. For a friend in an activity, the ledger of its group is updated.
+     *
+     * @param amount the new amount
+     */
+    public void editAmount(Money amount) {
+        if (activity != null) {
+            activity.editFriendCents(index, amount.getCents());
+            return;
+        }
+        this.amount = amount;
+    }
+
+    public Money getMoney() {
+        return activity != null ? Money.ofCents(activity.getFriendCents(index)) : amount;
     }
 
     public void markAsPaid() {
-        this.hasPaid = true;
+        setPaid(true);
     }
 
     public void markAsUnpaid() {
-        this.hasPaid = false;
+        setPaid(false);
+    }
+
+    private void setPaid(boolean hasPaid) {
+        if (activity != null) {
+            activity.setFriendPaid(index, hasPaid);
+            return;
+        }
+        this.hasPaid = hasPaid;
     }
 
     public boolean hasPaid() {
-        return hasPaid;
+        return activity != null ? activity.isFriendPaid(index) : hasPaid;
     }
 
     public String toString(boolean printAmount) {
-        return printAmount ? "$" + String.format("%.2f", amount) + " " + printPaidStatus() :
-                name + " " + printPaidStatus();
+        return printAmount ? "$" + getMoney() + " " + printPaidStatus() :
+                getName() + " " + printPaidStatus();
     }
 
     public String printPaidStatus(){
-        return hasPaid ? "[Paid]" : "[Unpaid]";
+        return hasPaid() ? "[Paid]" : "[Unpaid]";
     }
 }
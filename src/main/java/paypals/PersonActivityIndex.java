@@ -0,0 +1,289 @@
+package paypals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * Holds the activities that one person pays for or owes money in, ordered by stable activity ID, and keeps
+ * apart the ones the person has settled from the ones they have not.
+ *
+ * <p>The activities sit in slots sorted by ID, with two Fenwick trees over the slots that count the settled
+ * and unsettled activities. Finding the K-th settled or unsettled activity, and the position of an activity
+ * among them, therefore takes logarithmic time. New activities almost always have the largest ID and are
+ * appended. A removed activity leaves an empty slot, which is reused if the activity is added back; the slots
+ * are compacted once most of them are empty, or when an activity has to be inserted between existing ones.</p>
+ */
+public class PersonActivityIndex {
+    private static final int INITIAL_CAPACITY = 4;
+
+    // Stable activity ID of each slot, in increasing order
+    private int[] ids = new int[INITIAL_CAPACITY];
+    // Activity in each slot, or null if the activity has been removed
+    private Activity[] slots = new Activity[INITIAL_CAPACITY];
+    private boolean[] settledFlags = new boolean[INITIAL_CAPACITY];
+    // Fenwick trees over the slots (1-based), counting the settled and unsettled activities
+    private int[] settledTree = new int[INITIAL_CAPACITY + 1];
+    private int[] unsettledTree = new int[INITIAL_CAPACITY + 1];
+    private int slotCount;
+    private int size;
+
+    /**
+     * Adds an activity, or updates whether it is settled if it is already in the index.
+     *
+     * @param activity  the activity to add
+     * @param isSettled whether the person has settled the activity
+     */
+    public void add(Activity activity, boolean isSettled) {
+        int id = activity.getId();
+        if (slotCount == 0 || id > ids[slotCount - 1]) {
+            append(id, activity, isSettled);
+            size++;
+            return;
+        }
+        int slot = Arrays.binarySearch(ids, 0, slotCount, id);
+        if (slot < 0) {
+            rebuild(-slot - 1, activity, isSettled);
+            size++;
+            return;
+        }
+        if (slots[slot] == null) {
+            slots[slot] = activity;
+            settledFlags[slot] = isSettled;
+            addToTrees(slot, isSettled, 1);
+            size++;
+            return;
+        }
+        setSettled(activity, isSettled);
+    }
+
+    /**
+     * Removes an activity, leaving its slot empty.
+     *
+     * @param activity the activity to remove
+     */
+    public void remove(Activity activity) {
+        int slot = findSlot(activity);
+        if (slot < 0) {
+            return;
+        }
+        addToTrees(slot, settledFlags[slot], -1);
+        slots[slot] = null;
+        size--;
+        if (slotCount > INITIAL_CAPACITY && size < slotCount / 2) {
+            rebuild(-1, null, false);
+        }
+    }
+
+    /**
+     * Records whether the person has settled an activity in the index.
+     *
+     * @param activity  the activity
+     * @param isSettled whether the person has settled the activity
+     */
+    public void setSettled(Activity activity, boolean isSettled) {
+        int slot = findSlot(activity);
+        if (slot < 0 || settledFlags[slot] == isSettled) {
+            return;
+        }
+        addToTrees(slot, settledFlags[slot], -1);
+        settledFlags[slot] = isSettled;
+        addToTrees(slot, isSettled, 1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getSettledCount() {
+        return prefixSum(settledTree, slotCount);
+    }
+
+    public int getUnsettledCount() {
+        return prefixSum(unsettledTree, slotCount);
+    }
+
+    /**
+     * Retrieves the K-th activity, in order of ID, among those the person has or has not settled.
+     *
+     * @param isSettled whether to look among the settled activities
+     * @param rank      the position of the activity among them, starting from 0
+     * @return the activity, or null if there are not that many
+     */
+    public Activity get(boolean isSettled, int rank) {
+        int[] tree = isSettled ? settledTree : unsettledTree;
+        if (rank < 0 || rank >= prefixSum(tree, slotCount)) {
+            return null;
+        }
+        // Descend the tree for the last position whose prefix sum is at most the rank
+        int position = 0;
+        int remaining = rank;
+        for (int step = Integer.highestOneBit(slotCount); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= slotCount && tree[next] <= remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        return slots[position];
+    }
+
+    /**
+     * Finds the position of an activity, in order of ID, among those the person has or has not settled.
+     *
+     * @param activity  the activity
+     * @param isSettled whether to look among the settled activities
+     * @return the position starting from 0, or -1 if the activity is not among them
+     */
+    public int rankOf(Activity activity, boolean isSettled) {
+        int slot = findSlot(activity);
+        if (slot < 0 || settledFlags[slot] != isSettled) {
+            return -1;
+        }
+        return prefixSum(isSettled ? settledTree : unsettledTree, slot);
+    }
+
+    /**
+     * Returns every activity in the index, in order of ID.
+     */
+    public ArrayList<Activity> getActivities() {
+        ArrayList<Activity> activities = new ArrayList<>(size);
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (slots[slot] != null) {
+                activities.add(slots[slot]);
+            }
+        }
+        return activities;
+    }
+
+    /**
+     * Returns the activities the person has or has not settled, in order of ID.
+     *
+     * @param isSettled whether to return the settled activities instead of the unsettled ones
+     * @return the activities that match
+     */
+    public ArrayList<Activity> getActivities(boolean isSettled) {
+        ArrayList<Activity> activities = new ArrayList<>();
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (slots[slot] != null && settledFlags[slot] == isSettled) {
+                activities.add(slots[slot]);
+            }
+        }
+        return activities;
+    }
+
+    /**
+     * Returns the activity with the largest ID for which a condition holds, checking from the largest ID down.
+     *
+     * @param condition the condition to check
+     * @return the activity, or null if the condition holds for none of them
+     */
+    public Activity findLast(Predicate<Activity> condition) {
+        for (int slot = slotCount - 1; slot >= 0; slot--) {
+            if (slots[slot] != null && condition.test(slots[slot])) {
+                return slots[slot];
+            }
+        }
+        return null;
+    }
+
+    private int findSlot(Activity activity) {
+        int slot = Arrays.binarySearch(ids, 0, slotCount, activity.getId());
+        return slot >= 0 && slots[slot] == activity ? slot : -1;
+    }
+
+    private void append(int id, Activity activity, boolean isSettled) {
+        if (slotCount == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            slots = Arrays.copyOf(slots, capacity);
+            settledFlags = Arrays.copyOf(settledFlags, capacity);
+            settledTree = Arrays.copyOf(settledTree, capacity + 1);
+            unsettledTree = Arrays.copyOf(unsettledTree, capacity + 1);
+        }
+        ids[slotCount] = id;
+        slots[slotCount] = activity;
+        settledFlags[slotCount] = isSettled;
+        // A new last node covers the range of earlier slots given by its lowest set bit, plus its own slot
+        int position = slotCount + 1;
+        int start = position - (position & -position);
+        settledTree[position] = prefixSum(settledTree, slotCount) - prefixSum(settledTree, start)
+                + (isSettled ? 1 : 0);
+        unsettledTree[position] = prefixSum(unsettledTree, slotCount) - prefixSum(unsettledTree, start)
+                + (isSettled ? 0 : 1);
+        slotCount++;
+    }
+
+    /**
+     * Compacts the slots, dropping the empty ones, and optionally inserts an activity, then rebuilds the trees.
+     *
+     * @param insertAt  the slot before which to insert the activity, or -1 to insert nothing
+     * @param activity  the activity to insert
+     * @param isSettled whether the person has settled the inserted activity
+     */
+    private void rebuild(int insertAt, Activity activity, boolean isSettled) {
+        int[] oldIds = ids;
+        Activity[] oldSlots = slots;
+        boolean[] oldSettledFlags = settledFlags;
+        int oldSlotCount = slotCount;
+
+        int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(size + 1) * 2);
+        ids = new int[capacity];
+        slots = new Activity[capacity];
+        settledFlags = new boolean[capacity];
+        settledTree = new int[capacity + 1];
+        unsettledTree = new int[capacity + 1];
+        slotCount = 0;
+        for (int slot = 0; slot <= oldSlotCount; slot++) {
+            if (slot == insertAt) {
+                place(activity.getId(), activity, isSettled);
+            }
+            if (slot < oldSlotCount && oldSlots[slot] != null) {
+                place(oldIds[slot], oldSlots[slot], oldSettledFlags[slot]);
+            }
+        }
+        // Build both trees in linear time by passing each node's count on to its parent
+        for (int position = 1; position <= slotCount; position++) {
+            int parent = position + (position & -position);
+            if (parent <= slotCount) {
+                settledTree[parent] += settledTree[position];
+                unsettledTree[parent] += unsettledTree[position];
+            }
+        }
+    }
+
+    private void place(int id, Activity activity, boolean isSettled) {
+        ids[slotCount] = id;
+        slots[slotCount] = activity;
+        settledFlags[slotCount] = isSettled;
+        settledTree[slotCount + 1] = isSettled ? 1 : 0;
+        unsettledTree[slotCount + 1] = isSettled ? 0 : 1;
+        slotCount++;
+    }
+
+    private void addToTrees(int slot, boolean isSettled, int change) {
+        int[] tree = isSettled ? settledTree : unsettledTree;
+        for (int position = slot + 1; position <= slotCount; position += position & -position) {
+            tree[position] += change;
+        }
+    }
+
+    /**
+     * Sums the counts of the first slots.
+     *
+     * @param tree  the tree to sum
+     * @param count the number of slots to sum
+     * @return the sum
+     */
+    private static int prefixSum(int[] tree, int count) {
+        int sum = 0;
+        for (int position = count; position > 0; position -= position & -position) {
+            sum += tree[position];
+        }
+        return sum;
+    }
+}
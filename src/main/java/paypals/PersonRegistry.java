@@ -0,0 +1,76 @@
+package paypals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Assigns every person in a group a dense integer ID, so that people can be compared and indexed by ID
+ * instead of by case-insensitive name.
+ *
+ * <p>Names that differ only in case belong to the same person. The case-folded key of each person is computed
+ * once, when the person is registered, and every distinct spelling of a name is stored once per group.</p>
+ */
+public class PersonRegistry {
+    // Key: name (lower-cased) and Value: ID of the person
+    private final HashMap<String, Integer> ids = new HashMap<>();
+    // Index: ID of the person and Value: name (lower-cased)
+    private final ArrayList<String> keys = new ArrayList<>();
+    // The single stored instance of every spelling of a name
+    private final HashMap<String, String> spellings = new HashMap<>();
+
+    /**
+     * Retrieves the ID of a person, registering the person if the name has not been seen before.
+     *
+     * @param name the name of the person, in any case
+     * @return the ID of the person
+     */
+    public int register(String name) {
+        String key = name.toLowerCase();
+        Integer id = ids.get(key);
+        if (id == null) {
+            id = keys.size();
+            ids.put(key, id);
+            keys.add(key);
+        }
+        return id;
+    }
+
+    /**
+     * Retrieves the ID of a person without registering them.
+     *
+     * @param name the name of the person, in any case
+     * @return the ID of the person, or -1 if no person with that name has been registered
+     */
+    public int find(String name) {
+        Integer id = ids.get(name.toLowerCase());
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Retrieves the case-folded name of a person.
+     *
+     * @param id the ID of the person
+     * @return the name of the person (lower-cased)
+     */
+    public String getKey(int id) {
+        return keys.get(id);
+    }
+
+    /**
+     * Returns the stored instance of a spelling of a name, storing it if it is new.
+     *
+     * @param name the name as written
+     * @return an equal string that is shared by every use of the spelling in the group
+     */
+    public String intern(String name) {
+        String stored = spellings.putIfAbsent(name, name);
+        return stored == null ? name : stored;
+    }
+
+    /**
+     * Returns the number of people registered, which is one more than the largest ID.
+     */
+    public int size() {
+        return keys.size();
+    }
+}
@@ -0,0 +1,191 @@
+package paypals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Computes the transfers needed to settle the net balances of a group.
+ *
+ * <p>The person who is owed the most is repeatedly paid by the person who owes the most. Creditors and debtors
+ * are kept in two priority queues, so settling a group of n people takes O(n log n) time. People with equal
+ * balances are settled in the order they were given. Balances are settled in whole cents, so no rounding error
+ * is left over.</p>
+ *
+ * <p>This greedy matching does not always use the fewest transfers. An exact search is available for small
+ * groups, see {@link #settleOptimally(Map, long)}.</p>
+ */
+public class SettlementEngine {
+    // The exact search keeps two arrays of 2^n entries, which would use too much memory beyond this size
+    public static final int MAX_OPTIMAL_PEOPLE = 20;
+    // How many subsets are searched between two checks of the time budget
+    private static final int BUDGET_CHECK_INTERVAL = 1 << 12;
+
+    /**
+     * Computes the transfers that settle the given net balances.
+     *
+     * @param netBalances a map of each person's name to their net balance, positive if the person is owed money;
+     *                    the balances are expected to add up to zero
+     * @return the transfers, in the order they are made
+     */
+    public ArrayList<Transaction> settle(Map<String, Money> netBalances) {
+        return settleGreedily(toBalances(netBalances));
+    }
+
+    /**
+     * Counts the people who still owe or are owed money, who are the ones a settlement has to include.
+     *
+     * @param netBalances a map of each person's name to their net balance
+     * @return the number of people whose balance is not zero
+     */
+    public int countUnsettled(Map<String, Money> netBalances) {
+        int count = 0;
+        for (Money balance : netBalances.values()) {
+            if (balance.getCents() != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Computes the transfers that settle the given net balances with the fewest transfers possible.
+     *
+     * <p>A group of k people whose balances add up to zero can always be settled with k - 1 transfers, so the
+     * fewest transfers are found by splitting everyone into as many zero-sum groups as possible. The best split
+     * is searched over every subset of people, which takes O(2^n * n) time, and each group is then settled
+     * greedily.</p>
+     *
+     * @param netBalances      a map of each person's name to their net balance, positive if the person is owed
+     *                         money; the balances are expected to add up to zero
+     * @param timeBudgetMillis the longest time the search may take, in milliseconds
+     * @return the transfers, in the order they are made, or null if more than {@link #MAX_OPTIMAL_PEOPLE} people
+     *         have a balance or the search did not finish within the time budget
+     */
+    public ArrayList<Transaction> settleOptimally(Map<String, Money> netBalances, long timeBudgetMillis) {
+        ArrayList<Balance> balances = toBalances(netBalances);
+        int count = balances.size();
+        if (count > MAX_OPTIMAL_PEOPLE) {
+            return null;
+        }
+
+        long deadline = System.nanoTime() + timeBudgetMillis * 1_000_000L;
+        int fullMask = (1 << count) - 1;
+        long[] sums = new long[fullMask + 1];
+        // The most zero-sum groups that the people in each subset can be split into
+        int[] groups = new int[fullMask + 1];
+        for (int mask = 1; mask <= fullMask; mask++) {
+            if (mask % BUDGET_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                return null;
+            }
+            int lowestBit = Integer.numberOfTrailingZeros(mask);
+            sums[mask] = sums[mask & (mask - 1)] + balances.get(lowestBit).cents;
+
+            int best = 0;
+            for (int remaining = mask; remaining != 0; remaining &= remaining - 1) {
+                int person = Integer.numberOfTrailingZeros(remaining);
+                best = Math.max(best, groups[mask & ~(1 << person)]);
+            }
+            groups[mask] = best + (sums[mask] == 0 ? 1 : 0);
+        }
+
+        ArrayList<Transaction> transactions = new ArrayList<>();
+        for (List<Balance> group : splitIntoGroups(balances, groups, sums, fullMask)) {
+            transactions.addAll(settleGreedily(group));
+        }
+        return transactions;
+    }
+
+    /**
+     * Recovers the zero-sum groups found by the exact search, by removing one person at a time from the full
+     * group while keeping the most groups possible. A new group starts whenever the remaining people add up to
+     * zero.
+     */
+    private ArrayList<List<Balance>> splitIntoGroups(ArrayList<Balance> balances, int[] groups, long[] sums,
+                                                     int fullMask) {
+        ArrayList<List<Balance>> zeroSumGroups = new ArrayList<>();
+        ArrayList<Balance> current = new ArrayList<>();
+        int mask = fullMask;
+        while (mask != 0) {
+            int target = groups[mask] - (sums[mask] == 0 ? 1 : 0);
+            int person = Integer.numberOfTrailingZeros(mask);
+            for (int remaining = mask; remaining != 0; remaining &= remaining - 1) {
+                int candidate = Integer.numberOfTrailingZeros(remaining);
+                if (groups[mask & ~(1 << candidate)] == target) {
+                    person = candidate;
+                    break;
+                }
+            }
+            current.add(balances.get(person));
+            mask &= ~(1 << person);
+            if (sums[mask] == 0) {
+                current.sort((a, b) -> Integer.compare(a.order, b.order));
+                zeroSumGroups.add(current);
+                current = new ArrayList<>();
+            }
+        }
+        zeroSumGroups.sort((a, b) -> Integer.compare(a.get(0).order, b.get(0).order));
+        return zeroSumGroups;
+    }
+
+    private ArrayList<Balance> toBalances(Map<String, Money> netBalances) {
+        ArrayList<Balance> balances = new ArrayList<>();
+        int order = 0;
+        for (Map.Entry<String, Money> entry : netBalances.entrySet()) {
+            long cents = entry.getValue().getCents();
+            if (cents != 0) {
+                balances.add(new Balance(entry.getKey(), cents, order++));
+            }
+        }
+        return balances;
+    }
+
+    private ArrayList<Transaction> settleGreedily(List<Balance> balances) {
+        PriorityQueue<Balance> creditors = new PriorityQueue<>(
+                (a, b) -> a.cents != b.cents ? Long.compare(b.cents, a.cents) : Integer.compare(a.order, b.order));
+        PriorityQueue<Balance> debtors = new PriorityQueue<>(
+                (a, b) -> a.cents != b.cents ? Long.compare(a.cents, b.cents) : Integer.compare(a.order, b.order));
+        for (Balance balance : balances) {
+            if (balance.cents > 0) {
+                creditors.add(balance);
+            } else {
+                debtors.add(balance);
+            }
+        }
+
+        ArrayList<Transaction> transactions = new ArrayList<>();
+        while (!creditors.isEmpty() && !debtors.isEmpty()) {
+            Balance creditor = creditors.poll();
+            Balance debtor = debtors.poll();
+            long cents = Math.min(creditor.cents, -debtor.cents);
+
+            transactions.add(new Transaction(debtor.name, creditor.name, Money.ofCents(cents)));
+
+            creditor.cents -= cents;
+            debtor.cents += cents;
+            if (creditor.cents > 0) {
+                creditors.add(creditor);
+            }
+            if (debtor.cents < 0) {
+                debtors.add(debtor);
+            }
+        }
+        return transactions;
+    }
+
+    /**
+     * Holds the remaining balance of a person while the group is being settled.
+     */
+    private static class Balance {
+        private final String name;
+        private final int order;
+        private long cents;
+
+        private Balance(String name, long cents, int order) {
+            this.name = name;
+            this.cents = cents;
+            this.order = order;
+        }
+    }
+}
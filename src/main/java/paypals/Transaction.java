@@ -0,0 +1,40 @@
+package paypals;
+
+/**
+ * Represents a single transfer of money needed to settle the debts of a group.
+ */
+public class Transaction {
+    private final String debtor;
+    private final String creditor;
+    private final Money amount;
+
+    /**
+     * Constructs a transaction in which the debtor pays the creditor.
+     *
+     * @param debtor   the name of the person who pays
+     * @param creditor the name of the person who receives the money
+     * @param amount   the amount transferred
+     */
+    public Transaction(String debtor, String creditor, Money amount) {
+        this.debtor = debtor;
+        this.creditor = creditor;
+        this.amount = amount;
+    }
+
+    public String getDebtor() {
+        return debtor;
+    }
+
+    public String getCreditor() {
+        return creditor;
+    }
+
+    public Money getAmount() {
+        return amount;
+    }
+
+    @Override
+    public String toString() {
+        return debtor + " pays " + creditor + " $" + amount;
+    }
+}
@@ -2,15 +2,16 @@ package paypals.commands;
 
 import paypals.Activity;
 import paypals.ActivityManager;
+import paypals.Money;
 import paypals.Person;
 import paypals.exception.ExceptionMessage;
 import paypals.exception.PayPalsException;
+import paypals.util.FlagTokenizer;
 import paypals.util.Logging;
 import paypals.util.UI;
 
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Represents the command to add a new activity in PayPals.
@@ -20,8 +21,6 @@ public class AddCommand extends Command {
 
     private static final String WRONG_ADD_FORMAT =
             "add d/DESCRIPTION n/PAYER f/FRIEND1 a/AMOUNT_OWED_1 f/FRIEND2 a/AMOUNT_OWED_2...";
-    private static final double LARGE_AMOUNT_LIMIT = 10000.0;
-    private static final String MONEY_FORMAT = "^-?\\d+(\\.\\d{1,2})?$";
 
     /**
      * Constructs an AddCommand with the given raw user input.
@@ -32,6 +31,15 @@ public class AddCommand extends Command {
         super(command);
     }
 
+    /**
+     * Constructs an AddCommand from user input that has already been tokenized.
+     *
+     * @param tokens The tokens of the user command input.
+     */
+    public AddCommand(FlagTokenizer.Tokens tokens) {
+        super(tokens);
+    }
+
     /**
      * Extracts the value of a given prefix (e.g., d/, n/) from the user input.
      *
@@ -41,12 +49,9 @@ public class AddCommand extends Command {
      * @throws PayPalsException If the key is not found in the input.
      */
     String extractValue(String key, ExceptionMessage exceptionMessage) throws PayPalsException {
-        String regex = key + "(?<!\\S[a-zA-Z]\\/)(?<=[a-zA-Z]\\/)([^\\/]+?)(?=\\s+[a-zA-Z]+\\/|$)";
-        Pattern pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(command);
-
-        if (matcher.find()) {
-            return matcher.group(1).trim();
+        String value = getTokens().findValue(key.charAt(0));
+        if (value != null) {
+            return value;
         } else {
             Logging.logWarning("Invalid input format detected");
             System.out.println(WRONG_ADD_FORMAT);
@@ -94,18 +99,15 @@ public class AddCommand extends Command {
         assert activityManager != null : "ActivityManager should not be null";
 
         UI ui = new UI(enablePrint);
-        if (activityManager.getSize() >= 1000) {
-            throw new PayPalsException(ExceptionMessage.MORE_THAN_1000_ACTIVITIES);
-        }
         HashMap<String, String> names = new HashMap<>();
-        HashMap<String, Double> owed = new HashMap<>();
+        ArrayList<Person> owed = new ArrayList<>();
         validatePrefixOrder();
 
         // Step 1: Extract description and payer name
         String description = extractValue("d/", ExceptionMessage.NO_DESCRIPTION);
         String name = extractValue("n/", ExceptionMessage.NO_PAYER);
 
-        if (name.matches(".*\\d.*")) {
+        if (FlagTokenizer.containsDigit(name)) {
             throw new PayPalsException(ExceptionMessage.NUMBERS_IN_NAME);
         }
 
@@ -117,27 +119,25 @@ public class AddCommand extends Command {
         assert !name.isEmpty() : "Payer name should not be null or empty";
 
         // Step 2: Capture all (f/... a/...) pairs
-        String[] pairs = command.split("\\s+(?i)f/");
-        double totalOwed = 0.0;
-        for (int i = 1; i < pairs.length; i++) {
-            String[] parameters = pairs[i].split("\\s+(?i)a/");
+        Money totalOwed = Money.ZERO;
+        for (String[] parameters : getTokens().splitOnFlags('f', 'a')) {
             if (parameters.length == 2) {
                 String oweName = parameters[0].trim();
-                if (oweName.matches(".*\\d.*")) {
+                if (FlagTokenizer.containsDigit(oweName)) {
                     throw new PayPalsException(ExceptionMessage.NUMBERS_IN_NAME);
                 }
                 String amountString = parameters[1].trim();
-                if (amountString.split("\\s+").length > 1) {
+                if (FlagTokenizer.containsSpace(amountString)) {
                     throw new PayPalsException(ExceptionMessage.INVALID_FORMAT, WRONG_ADD_FORMAT);
                 }
-                double oweAmount;
+                Money oweAmount;
 
                 if (oweName.contains("/")) {
                     throw new PayPalsException(ExceptionMessage.SLASH_IN_NAME);
                 }
 
                 try {
-                    oweAmount = Double.parseDouble(parameters[1]);
+                    oweAmount = Money.parse(parameters[1]);
                 } catch (Exception e) {
                     Logging.logWarning("Invalid amount entered for friend");
                     throw new PayPalsException(ExceptionMessage.INVALID_AMOUNT);
@@ -149,21 +149,21 @@ public class AddCommand extends Command {
                 if (!isValidAmount(parameters[1].trim())) {
                     throw new PayPalsException(ExceptionMessage.NOT_MONEY_FORMAT);
                 }
-                if (oweAmount <= 0.0) {
+                if (!oweAmount.isPositive()) {
                     Logging.logWarning("Amount entered for friend out of bounds");
                     throw new PayPalsException(ExceptionMessage.AMOUNT_OUT_OF_BOUNDS);
                 }
-                if (oweAmount > LARGE_AMOUNT_LIMIT) {
+                if (oweAmount.compareTo(Money.LARGE_AMOUNT_LIMIT) > 0) {
                     Logging.logWarning("Amount entered for friend out of bounds");
                     throw new PayPalsException(ExceptionMessage.LARGE_AMOUNT);
                 }
 
                 validateFriend(name, oweName, names);
                 names.put(oweName.toLowerCase(), oweName);
-                owed.put(oweName, oweAmount);
-                totalOwed += oweAmount;
+                owed.add(new Person(oweName, oweAmount, false));
+                totalOwed = totalOwed.plus(oweAmount);
 
-                Logging.logInfo("Friend added successfully");
+                Logging.logFine(() -> "Friend added successfully: " + oweName);
             } else {
                 Logging.logWarning("Incorrect number of parameters detected: {0}");
                 throw new PayPalsException(parameters.length < 2
@@ -171,13 +171,13 @@ public class AddCommand extends Command {
             }
         }
 
-        assert totalOwed >= 0 : "Total owed amount should not be negative";
+        assert !totalOwed.isNegative() : "Total owed amount should not be negative";
 
         ui.print("Desc: " + description);
         ui.print("Name of payer: " + name);
         ui.print("Number of friends who owe " + name + ": " + owed.size());
 
-        Activity newActivity = new Activity(description, new Person(name, -totalOwed, false), owed);
+        Activity newActivity = new Activity(description, new Person(name, totalOwed.negate(), false), owed);
         activityManager.addActivity(newActivity);
 
         Logging.logInfo("Activity added successfully");
@@ -190,36 +190,34 @@ public class AddCommand extends Command {
      * @return true if the format is valid; false otherwise.
      */
     public boolean isValidAmount(String amountStr) {
-        return amountStr.matches(MONEY_FORMAT);
+        return Money.isValidFormat(amountStr);
     }
 
     public void validatePrefixOrder() throws PayPalsException {
+        FlagTokenizer.Tokens tokens = getTokens();
         // Get positions of d/ flag
-        int dIndex = command.indexOf("d/");
+        int dIndex = tokens.indexOf('d');
         if (dIndex == -1) {
-            dIndex = command.indexOf("D/");
+            dIndex = tokens.indexOf('D');
         }
         // Get positions of n/ flag
-        int nIndex = command.indexOf("n/");
+        int nIndex = tokens.indexOf('n');
         if (nIndex == -1) {
-            nIndex = command.indexOf("N/");
+            nIndex = tokens.indexOf('N');
         }
         // Get positions of f/ flag
-        int fIndex = command.indexOf("f/");
+        int fIndex = tokens.indexOf('f');
         if (fIndex == -1) {
-            fIndex = command.indexOf("F/");
+            fIndex = tokens.indexOf('F');
         }
         // Get positions of a/ flag
-        int aIndex = command.indexOf("a/");
+        int aIndex = tokens.indexOf('a');
         if (aIndex == -1) {
-            aIndex = command.indexOf("A/");
+            aIndex = tokens.indexOf('A');
         }
 
         // Check for incorrect flags, with 2 or more characters before the '/' character
-        String regex = "(?<=\\S[a-zA-Z]\\/)([^\\/]+?)(?=\\s+[a-zA-Z]+\\/|$)";
-        Pattern pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(command);
-        if (matcher.find()) {
+        if (tokens.hasMalformedFlag()) {
             throw new PayPalsException(ExceptionMessage.INVALID_FORMAT, WRONG_ADD_FORMAT);
         }
       
@@ -242,7 +240,7 @@ public class AddCommand extends Command {
         if (!(dIndex < nIndex && nIndex < fIndex && fIndex < aIndex)) {
             throw new PayPalsException(ExceptionMessage.INVALID_FORMAT, WRONG_ADD_FORMAT);
         }
-        if (command.indexOf("d/",dIndex+1) != -1 || command.indexOf("n/",nIndex+1) != -1){
+        if (tokens.indexOf('d', dIndex + 1) != -1 || tokens.indexOf('n', nIndex + 1) != -1) {
             throw new PayPalsException(ExceptionMessage.INVALID_FORMAT, WRONG_ADD_FORMAT);
         }
     }
@@ -2,18 +2,17 @@ package paypals.commands;
 
 import paypals.Activity;
 import paypals.ActivityManager;
+import paypals.Money;
 import paypals.Person;
 import paypals.exception.ExceptionMessage;
 import paypals.exception.PayPalsException;
+import paypals.util.FlagTokenizer;
 import paypals.util.Logging;
 import paypals.util.UI;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Represents the addequal command in the PayPals application.
@@ -24,8 +23,6 @@ public class AddEqualCommand extends AddCommand {
 
     private static final String WRONG_ADDEQUAL_FORMAT =
             "addequal d/DESCRIPTION n/PAYER f/FRIEND1 f/FRIEND2 ... a/AMOUNT_OWED";
-    private static final double LARGE_AMOUNT_LIMIT = 10000.0;
-    private static final String MONEY_FORMAT = "^-?\\d+(\\.\\d{1,2})?$";
 
     /**
      * Constructs an AddEqualCommand with the raw user input command.
@@ -36,6 +33,15 @@ public class AddEqualCommand extends AddCommand {
         super(command);
     }
 
+    /**
+     * Constructs an AddEqualCommand from user input that has already been tokenized.
+     *
+     * @param tokens the tokens of the input entered by the user
+     */
+    public AddEqualCommand(FlagTokenizer.Tokens tokens) {
+        super(tokens);
+    }
+
     /**
      * Executes the addequal command to record an activity with equal expense sharing.
      * The total amount is split among the payer and all listed friends.
@@ -49,14 +55,11 @@ public class AddEqualCommand extends AddCommand {
 
         UI ui = new UI(enablePrint);
         HashMap<String, String> names = new HashMap<>();
-        HashMap<String, Double> owed = new HashMap<>();
-        if (activityManager.getSize() >= 1000) {
-            throw new PayPalsException(ExceptionMessage.MORE_THAN_1000_ACTIVITIES);
-        }
+        ArrayList<Person> owed = new ArrayList<>();
         validatePrefixOrder();
         String description = extractValue("d/", ExceptionMessage.NO_DESCRIPTION);
         String name = extractValue("n/", ExceptionMessage.NO_PAYER);
-        if (name.matches(".*\\d.*")) {
+        if (FlagTokenizer.containsDigit(name)) {
             throw new PayPalsException(ExceptionMessage.NUMBERS_IN_NAME);
         }
         if (name.contains("/")) {
@@ -66,20 +69,16 @@ public class AddEqualCommand extends AddCommand {
         assert !description.isEmpty() : "Description should not be null or empty";
         assert !name.isEmpty() : "Payer name should not be null or empty";
 
-        double totalAmount = getTotalAmount();
-        assert totalAmount >= 0 : "Total amount should not be less than 0";
+        Money totalAmount = getTotalAmount();
+        assert !totalAmount.isNegative() : "Total amount should not be less than 0";
 
-        String friendsPart = command.split("(?i)a/")[0];
-        String[] friends = friendsPart.split("\\s+(?i)f/");
+        String[] friends = getTokens().splitOnFlagBefore('f', 'a');
         if (friends.length <= 1) {
             throw new PayPalsException(ExceptionMessage.NO_FRIENDS);
         }
         friends = Arrays.copyOfRange(friends, 1, friends.length);  // remove command part
 
-        double amount = totalAmount/ (friends.length + 1);
-        BigDecimal bdAmount = new BigDecimal(Double.toString(amount));
-        bdAmount = bdAmount.setScale(2, RoundingMode.HALF_EVEN);
-        double roundedAmount = bdAmount.doubleValue();
+        Money roundedAmount = totalAmount.divide(friends.length + 1);
 
         for (String friend : friends) {
             String friendName = friend.trim();
@@ -88,7 +87,7 @@ public class AddEqualCommand extends AddCommand {
             if (friendName.isEmpty()) {
                 throw new PayPalsException(ExceptionMessage.INVALID_FRIEND);
             }
-            if (friendName.matches(".*\\d.*")) {
+            if (FlagTokenizer.containsDigit(friendName)) {
                 throw new PayPalsException(ExceptionMessage.NUMBERS_IN_NAME);
             }
             if (friendName.contains("/")) {
@@ -97,15 +96,16 @@ public class AddEqualCommand extends AddCommand {
 
             validateFriend(name, friendName, names);
             names.put(friendName.toLowerCase(), friendName);
-            owed.put(friendName, roundedAmount);
-            Logging.logInfo("Friend added successfully");
+            owed.add(new Person(friendName, roundedAmount, false));
+            Logging.logFine(() -> "Friend added successfully: " + friendName);
         }
 
         ui.print("Desc: " + description);
         ui.print("Name of payer: " + name);
         ui.print("Number of friends who owe " + name + ": " + owed.size());
 
-        Activity newActivity = new Activity(description, new Person(name, -(totalAmount - roundedAmount), false), owed);
+        Person payer = new Person(name, roundedAmount.minus(totalAmount), false);
+        Activity newActivity = new Activity(description, payer, owed);
         activityManager.addActivity(newActivity);
 
         Logging.logInfo("Activity added successfully");
@@ -114,32 +114,32 @@ public class AddEqualCommand extends AddCommand {
     /**
      * Extracts and validates the total amount from the user input.
      *
-     * @return the parsed amount as a double
+     * @return the parsed amount
      * @throws PayPalsException if the amount is not a number, negative, or improperly formatted
      */
-    private double getTotalAmount() throws PayPalsException {
-        int count = command.split("(?i)a/").length - 1; // Count occurrences of "a/"
+    private Money getTotalAmount() throws PayPalsException {
+        int count = getTokens().splitIgnoreCase('a').length - 1; // Count occurrences of "a/"
         if (count > 1) {
             Logging.logWarning("Multiple 'a/' prefixes found in command");
             throw new PayPalsException(ExceptionMessage.MULTIPLE_AMOUNTS_FOR_ADDEQUAL);
         }
 
         String amountEntered = extractValue("a/", ExceptionMessage.NO_AMOUNT_ENTERED);
-        double totalAmount;
+        Money totalAmount;
         try {
-            totalAmount = Double.parseDouble(amountEntered);
+            totalAmount = Money.parse(amountEntered);
         } catch (NumberFormatException e) {
-            Logging.logWarning("Invalid amount entered: " + amountEntered);
+            Logging.logWarning(() -> "Invalid amount entered: " + amountEntered);
             throw new PayPalsException(ExceptionMessage.INVALID_AMOUNT);
         }
         if (!isValidAmount(amountEntered)) {
             throw new PayPalsException(ExceptionMessage.NOT_MONEY_FORMAT);
         }
-        if (totalAmount > LARGE_AMOUNT_LIMIT) {
+        if (totalAmount.compareTo(Money.LARGE_AMOUNT_LIMIT) > 0) {
             Logging.logWarning("Amount entered exceeds upper limit");
             throw new PayPalsException(ExceptionMessage.LARGE_AMOUNT);
         }
-        if (totalAmount <= 0) {
+        if (!totalAmount.isPositive()) {
             throw new PayPalsException(ExceptionMessage.NEGATIVE_AMOUNT);
         }
         return totalAmount;
@@ -152,37 +152,35 @@ public class AddEqualCommand extends AddCommand {
      * @return true if the format is valid; false otherwise
      */
     public boolean isValidAmount(String amountStr) {
-        return amountStr.matches(MONEY_FORMAT);
+        return Money.isValidFormat(amountStr);
     }
 
     @Override
     public void validatePrefixOrder() throws PayPalsException {
+        FlagTokenizer.Tokens tokens = getTokens();
         // Get positions of d/ flag
-        int dIndex = command.indexOf("d/");
+        int dIndex = tokens.indexOf('d');
         if (dIndex == -1) {
-            dIndex = command.indexOf("D/");
+            dIndex = tokens.indexOf('D');
         }
         // Get positions of n/ flag
-        int nIndex = command.indexOf("n/");
+        int nIndex = tokens.indexOf('n');
         if (nIndex == -1) {
-            nIndex = command.indexOf("N/");
+            nIndex = tokens.indexOf('N');
         }
         // Get positions of f/ flag
-        int fIndex = command.indexOf("f/");
+        int fIndex = tokens.indexOf('f');
         if (fIndex == -1) {
-            fIndex = command.indexOf("F/");
+            fIndex = tokens.indexOf('F');
         }
         // Get positions of a/ flag
-        int aIndex = command.indexOf("a/");
+        int aIndex = tokens.indexOf('a');
         if (aIndex == -1) {
-            aIndex = command.indexOf("A/");
+            aIndex = tokens.indexOf('A');
         }
 
         // Check for incorrect flags, with 2 or more characters before the '/' character
-        String regex = "(?<=\\S[a-zA-Z]\\/)([^\\/]+?)(?=\\s+[a-zA-Z]+\\/|$)";
-        Pattern pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(command);
-        if (matcher.find()) {
+        if (tokens.hasMalformedFlag()) {
             throw new PayPalsException(ExceptionMessage.INVALID_FORMAT, WRONG_ADDEQUAL_FORMAT);
         }
 
@@ -205,7 +203,7 @@ public class AddEqualCommand extends AddCommand {
         if (!(dIndex < nIndex && nIndex < fIndex && fIndex < aIndex)) {
             throw new PayPalsException(ExceptionMessage.INVALID_FORMAT, WRONG_ADDEQUAL_FORMAT);
         }
-        if (command.indexOf("d/",dIndex+1) != -1 || command.indexOf("n/",nIndex+1) != -1){
+        if (tokens.indexOf('d', dIndex + 1) != -1 || tokens.indexOf('n', nIndex + 1) != -1) {
             throw new PayPalsException(ExceptionMessage.INVALID_FORMAT, WRONG_ADDEQUAL_FORMAT);
         }
     }
@@ -0,0 +1,61 @@
+package paypals.commands;
+
+import paypals.ActivityManager;
+import paypals.Money;
+import paypals.exception.ExceptionMessage;
+import paypals.exception.PayPalsException;
+import paypals.util.Group;
+import paypals.util.GroupBalances;
+import paypals.util.UI;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Represents the "balances" command, which shows the net balance of every person across all groups,
+ * without having to change into each group.
+ */
+public class BalancesCommand extends Command {
+
+    /**
+     * Constructs a BalancesCommand with the specified command string.
+     *
+     * @param command the raw command string entered by the user, which should be empty
+     */
+    public BalancesCommand(String command) {
+        super(command);
+    }
+
+    /**
+     * Adds up the balances of every group and prints the net balance of each person, ordered by name.
+     *
+     * @param activityManager the activity manager of the current group
+     * @param enablePrint     whether to print the report to the UI
+     * @throws PayPalsException if the command is given any parameters
+     */
+    @Override
+    public void execute(ActivityManager activityManager, boolean enablePrint) throws PayPalsException {
+        if (!command.isEmpty()) {
+            throw new PayPalsException(ExceptionMessage.INVALID_FORMAT, "balances");
+        }
+        GroupBalances groupBalances = Group.getBalancesAcrossGroups(activityManager);
+        TreeMap<String, Money> balances = groupBalances.getBalances();
+
+        StringBuilder output = new StringBuilder();
+        if (balances.isEmpty()) {
+            output.append("Everyone is settled up across ").append(groupBalances.getGroupCount()).append(" groups.");
+        } else {
+            output.append("Net balances across ").append(groupBalances.getGroupCount()).append(" groups:");
+            for (Map.Entry<String, Money> entry : balances.entrySet()) {
+                Money balance = entry.getValue();
+                output.append("\n").append(entry.getKey()).append(": ")
+                        .append(balance.isNegative() ? "-$" : "+$").append(balance.abs());
+            }
+        }
+        if (groupBalances.getUnreadableGroupCount() > 0) {
+            output.append("\n").append(groupBalances.getUnreadableGroupCount())
+                    .append(" groups could not be read and were skipped.");
+        }
+        new UI(enablePrint).print(output.toString());
+    }
+}
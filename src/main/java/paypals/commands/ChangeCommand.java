@@ -9,7 +9,7 @@ import paypals.exception.PayPalsException;
 /**
  * Represents the ChangeCommand in the PayPals application.
  * This command allows the user to switch to a different group.
- * Upon execution, the current activity list is cleared and group selection is re-initiated.
+ * Upon execution, the current group is left, which clears the activity list, and group selection is re-initiated.
  */
 public class ChangeCommand extends Command {
 
@@ -24,18 +24,19 @@ public class ChangeCommand extends Command {
 
     /**
      * Executes the ChangeCommand.
-     * Clears the current activity list and triggers the group selection process again.
+     * Leaves the current group, clearing the activity list, and triggers the group selection process again.
      *
      * @param activityManager The manager handling all activity-related data.
      * @param enablePrint     A flag indicating whether output should be printed (not used here).
-     * @throws PayPalsException if the command is not empty (as no parameters are expected).
+     * @throws PayPalsException if the command is not empty (as no parameters are expected),
+     *                          or if the current group could not be saved before leaving it.
      */
     @Override
     public void execute(ActivityManager activityManager, boolean enablePrint) throws PayPalsException {
         if (!command.isEmpty()) {
             throw new PayPalsException(ExceptionMessage.INVALID_COMMAND);
         }
-        activityManager.getActivityList().clear();
+        Group.leaveGroup(activityManager);
         Group.groupSelection();
     }
 }
@@ -2,14 +2,33 @@ package paypals.commands;
 
 import paypals.ActivityManager;
 import paypals.exception.PayPalsException;
+import paypals.util.FlagTokenizer;
 
 public abstract class Command {
     String command;
+    // The flags in the command, tokenized at most once
+    private FlagTokenizer.Tokens tokens;
 
     Command(String command) {
         this.command = command;
     }
 
+    Command(FlagTokenizer.Tokens tokens) {
+        this.command = tokens.getInput();
+        this.tokens = tokens;
+    }
+
+    /**
+     * Returns the flags in the command, tokenizing the command the first time they are needed unless the parser
+     * has already done so.
+     */
+    FlagTokenizer.Tokens getTokens() {
+        if (tokens == null) {
+            tokens = FlagTokenizer.tokenize(command);
+        }
+        return tokens;
+    }
+
     public abstract void execute(ActivityManager activityManager, boolean enablePrint) throws PayPalsException;
 
     public boolean isExit() {
@@ -3,11 +3,10 @@ package paypals.commands;
 import paypals.ActivityManager;
 import paypals.exception.ExceptionMessage;
 import paypals.exception.PayPalsException;
+import paypals.util.FlagTokenizer;
 import paypals.util.Logging;
 import paypals.util.UI;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 
 /**
@@ -27,6 +26,15 @@ public class DeleteCommand extends Command {
         super(command);
     }
 
+    /**
+     * Constructs a new DeleteCommand from a command string that has already been tokenized.
+     *
+     * @param tokens The tokens of the command string containing the identifier
+     */
+    public DeleteCommand(FlagTokenizer.Tokens tokens) {
+        super(tokens);
+    }
+
     /**
      * Executes the delete command by removing the specified activity from the activity manager.
      * The method extracts the identifier from the command, validates it, converts it to an
@@ -42,14 +50,14 @@ public class DeleteCommand extends Command {
 
         validatePrefixOrder();
 
-        Logging.logInfo("Executing DeleteCommand with command: " + command);
+        Logging.logInfo(() -> "Executing DeleteCommand with command: " + command);
         String identifier = getIdentifier();
         int id = getID(identifier, activityManager.getSize());
         assert id == Integer.parseInt(identifier) - 1 : "ID should match the identifier - 1";
         activityManager.deleteActivity(id);
         UI ui = new UI(enablePrint);
         ui.print("Expense removed successfully!");
-        Logging.logInfo("Activity with id " + id + " has been deleted from ActivityManager.");
+        Logging.logInfo(() -> "Activity with id " + id + " has been deleted from ActivityManager.");
     }
 
     /**
@@ -60,7 +68,8 @@ public class DeleteCommand extends Command {
      * @throws PayPalsException If no identifier is found in the command string
      */
     private String getIdentifier() throws PayPalsException {
-        int count = command.split("(?i)i/").length - 1; // Count occurrences of "a/"
+        String[] parts = getTokens().splitIgnoreCase('i');
+        int count = parts.length - 1; // Count occurrences of "i/"
         if (count > 1) {
             Logging.logWarning("Multiple 'i/' prefixes found in command");
             throw new PayPalsException(ExceptionMessage.MULTIPLE_IDENTIFIER);
@@ -70,7 +79,7 @@ public class DeleteCommand extends Command {
         if (!command.toLowerCase().startsWith("i/")) {
             throw new PayPalsException(ExceptionMessage.INVALID_DELETE_FORMAT);
         }
-        return command.split("(?i)i/")[1];
+        return parts[1];
     }
 
     /**
@@ -88,7 +97,7 @@ public class DeleteCommand extends Command {
         try {
             id = Integer.parseInt(identifier) - 1;
         } catch (NumberFormatException e) {
-            Logging.logWarning("Invalid identifier format: " + identifier);
+            Logging.logWarning(() -> "Invalid identifier format: " + identifier);
             throw new PayPalsException(ExceptionMessage.INVALID_IDENTIFIER, identifier);
         }
 
@@ -96,7 +105,7 @@ public class DeleteCommand extends Command {
         boolean idIsTooSmall = id < 0;
 
         if (idIsTooLarge || idIsTooSmall) {
-            Logging.logWarning("Identifier out of bounds: id=" + id + ", size=" + size);
+            Logging.logWarning(() -> "Identifier out of bounds: id=" + id + ", size=" + size);
             throw new PayPalsException(ExceptionMessage.OUTOFBOUNDS_IDENTIFIER, Integer.toString(id+1));
         }
         return id;
@@ -120,10 +129,7 @@ public class DeleteCommand extends Command {
      */
     public void validatePrefixOrder() throws PayPalsException {
         // Check for incorrect flags, with 2 or more characters before the '/' character
-        String regex = "(?<=\\S[a-zA-Z]\\/)([^\\/]+?)(?=\\s+[a-zA-Z]+\\/|$)";
-        Pattern pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(command);
-        if (matcher.find()) {
+        if (getTokens().hasMalformedFlag()) {
             throw new PayPalsException(ExceptionMessage.INVALID_FORMAT, WRONG_DELETE_FORMAT);
         }
     }
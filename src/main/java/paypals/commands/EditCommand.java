@@ -1,13 +1,14 @@
 package paypals.commands;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import paypals.ActivityManager;
+import paypals.Money;
 import paypals.exception.ExceptionMessage;
 import paypals.exception.PayPalsException;
+import paypals.util.FlagTokenizer;
 import paypals.util.Logging;
 import paypals.util.UI;
 
@@ -22,13 +23,8 @@ public class EditCommand extends Command {
              "(Friend name) edit i/IDENTIFIER f/NEWNAME o/OLDNAME\n" +
              "(Friend amount) edit i/IDENTIFIER a/NEWAMOUNT o/FRIENDNAME";
 
-    /** Regex pattern for extracting parameters with prefixes like i/, d/, n/, f/, a/, o/. */
-    private static final Pattern COMMAND_PATTERN = Pattern.compile(
-            "([idnfao])/\\s*([^/]+?)(?=\\s+[idnfao]/|$)", Pattern.CASE_INSENSITIVE);
-
-    /** Maximum amount limit allowed per person. */
-    private static final double LARGE_AMOUNT_LIMIT = 10000.0;
-    private static final String MONEY_FORMAT = "^-?\\d+(\\.\\d{1,2})?$";
+    /** Prefixes of the parameters, i/, d/, n/, f/, a/ and o/. */
+    private static final String PREFIXES = "idnfao";
 
     /**
      * Constructs an EditCommand object.
@@ -39,6 +35,15 @@ public class EditCommand extends Command {
         super(command);
     }
 
+    /**
+     * Constructs an EditCommand object from user input that has already been tokenized.
+     *
+     * @param tokens The tokens of the full user input string.
+     */
+    public EditCommand(FlagTokenizer.Tokens tokens) {
+        super(tokens);
+    }
+
     /**
      * Executes the EditCommand.
      * Parses the input, validates the parameters, and applies the appropriate edit
@@ -57,11 +62,12 @@ public class EditCommand extends Command {
         if (command == null || command.trim().isEmpty()) {
             throw new PayPalsException(ExceptionMessage.EDIT_FORMAT_ERROR);
         }
-        if (!isValidEditCommandOrder(command)) {
+        List<FlagTokenizer.Flag> flags = getTokens().getFlags(PREFIXES);
+        if (!isValidOrder(flags)) {
             throw new PayPalsException(ExceptionMessage.EDIT_FORMAT_ERROR);
         }
 
-        Map<String, String> parameters = parseCommand();
+        Map<String, String> parameters = toParameters(flags);
 
         String id = parameters.get("i");
         if (id == null) {
@@ -72,16 +78,15 @@ public class EditCommand extends Command {
     }
 
     /**
-     * Parses the command string to extract all valid parameter key-value pairs.
+     * Collects the flags of the command into parameter key-value pairs.
      *
+     * @param flags The flags of the command, in the order they appear.
      * @return A map of parsed parameters, keyed by their prefix letters.
      */
-    private Map<String, String> parseCommand() {
+    private Map<String, String> toParameters(List<FlagTokenizer.Flag> flags) {
         Map<String, String> parameters = new HashMap<>();
-        Matcher matcher = COMMAND_PATTERN.matcher(command);
-
-        while (matcher.find()) {
-            parameters.put(matcher.group(1).toLowerCase(), matcher.group(2).trim());
+        for (FlagTokenizer.Flag flag : flags) {
+            parameters.put(String.valueOf(flag.getPrefix()), flag.getValue());
         }
         return parameters;
     }
@@ -133,11 +138,14 @@ public class EditCommand extends Command {
     }
 
     public boolean isValidEditCommandOrder(String command) {
-        // Use the existing regex to extract parameters in order.
-        Matcher matcher = COMMAND_PATTERN.matcher(command);
+        return isValidOrder(FlagTokenizer.tokenize(command).getFlags(PREFIXES));
+    }
+
+    private boolean isValidOrder(List<FlagTokenizer.Flag> flags) {
+        // Collect the prefix letters in the order they appear.
         StringBuilder keyOrder = new StringBuilder();
-        while (matcher.find()) {
-            keyOrder.append(matcher.group(1).toLowerCase());
+        for (FlagTokenizer.Flag flag : flags) {
+            keyOrder.append(flag.getPrefix());
         }
         String order = keyOrder.toString();
         // Valid orders based on allowed formats.
@@ -167,7 +175,7 @@ public class EditCommand extends Command {
 
         } else if (parameters.get("n") != null) {
             String payerName = parameters.get("n");
-            if (payerName.matches(".*\\d.*")) {
+            if (FlagTokenizer.containsDigit(payerName)) {
                 throw new PayPalsException(ExceptionMessage.NUMBERS_IN_NAME);
             }
             if (activityManager.getActivity(activityId).getFriend(payerName.toLowerCase()) != null) {
@@ -178,7 +186,7 @@ public class EditCommand extends Command {
 
         } else if (parameters.get("f") != null && parameters.get("o") != null) {
             String friend = parameters.get("f");
-            if (friend.matches(".*\\d.*")) {
+            if (FlagTokenizer.containsDigit(friend)) {
                 throw new PayPalsException(ExceptionMessage.NUMBERS_IN_NAME);
             }
             String oldName = parameters.get("o");
@@ -200,15 +208,15 @@ public class EditCommand extends Command {
             try {
                 String amount = parameters.get("a");
                 String name = parameters.get("o");
-                double parseAmt = Double.parseDouble(amount);
+                Money parseAmt = Money.parse(amount);
                 if (!isValidAmount(amount)) {
                     throw new PayPalsException(ExceptionMessage.NOT_MONEY_FORMAT);
                 }
 
-                if (parseAmt > LARGE_AMOUNT_LIMIT) {
+                if (parseAmt.compareTo(Money.LARGE_AMOUNT_LIMIT) > 0) {
                     throw new PayPalsException(ExceptionMessage.LARGE_AMOUNT);
                 }
-                if (parseAmt <= 0.0) {
+                if (!parseAmt.isPositive()) {
                     Logging.logWarning("Amount entered for friend out of bounds");
                     throw new PayPalsException(ExceptionMessage.AMOUNT_OUT_OF_BOUNDS);
                 }
@@ -238,7 +246,7 @@ public class EditCommand extends Command {
      * @return true if valid; false otherwise.
      */
     public boolean isValidAmount(String amountStr) {
-        return amountStr.matches(MONEY_FORMAT);
+        return Money.isValidFormat(amountStr);
     }
 
     /**
@@ -259,10 +267,7 @@ public class EditCommand extends Command {
      */
     public void validatePrefixOrder() throws PayPalsException {
         // Check for incorrect flags, with 2 or more characters before the '/' character
-        String regex = "(?<=\\S[a-zA-Z]\\/)([^\\/]+?)(?=\\s+[a-zA-Z]+\\/|$)";
-        Pattern pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(command);
-        if (matcher.find()) {
+        if (getTokens().hasMalformedFlag()) {
             throw new PayPalsException(ExceptionMessage.INVALID_FORMAT, WRONG_EDIT_FORMAT);
         }
     }
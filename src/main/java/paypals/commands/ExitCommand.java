@@ -3,6 +3,7 @@ package paypals.commands;
 import paypals.ActivityManager;
 import paypals.exception.ExceptionMessage;
 import paypals.exception.PayPalsException;
+import paypals.util.Logging;
 
 /**
  * Represents the ExitCommand in the PayPals application.
@@ -21,7 +22,7 @@ public class ExitCommand extends Command {
 
     /**
      * Executes the ExitCommand.
-     * This command does not perform any specific logic other than asserting the exit condition.
+     * Flushes the log, so that no record is lost when the application exits.
      *
      * @param activityManager The ActivityManager managing current activities (not used in this command).
      * @param enablePrint     Flag to control whether output should be printed (not used here).
@@ -32,6 +33,7 @@ public class ExitCommand extends Command {
             throw new PayPalsException(ExceptionMessage.INVALID_FORMAT,"exit");
         }
         assert isExit() : "isExit should be true";
+        Logging.flush();
     }
 
     /**
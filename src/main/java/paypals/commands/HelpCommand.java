@@ -49,12 +49,15 @@ public class HelpCommand extends Command {
                   7. list       -> list
                                 -> list n/NAME
                                 -> list balance n/NAME
+                  8. split      -> split
+                                -> split optimal
+                  9. import     -> import FILE
                 
                 Commands without format:
-                  1. split
-                  2. help
-                  3. exit
-                  4. change
+                  1. help
+                  2. exit
+                  3. change
+                  4. balances
                 
                 For more details, please refer to the User Guide of PayPals.
                 """);
@@ -0,0 +1,122 @@
+package paypals.commands;
+
+import paypals.ActivityManager;
+import paypals.exception.ExceptionMessage;
+import paypals.exception.PayPalsException;
+import paypals.util.Logging;
+import paypals.util.Parser;
+import paypals.util.UI;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents the "import" command, which runs every command in a text file, one command per line.
+ *
+ * <p>Lines are executed without printing their output, and a line that fails does not stop the lines after it.
+ * The group is saved once after the whole file has run, rather than after every line.
+ * Blank lines and lines starting with '#' are skipped.</p>
+ */
+public class ImportCommand extends Command {
+
+    private static final String COMMENT_PREFIX = "#";
+
+    private int importedCount;
+    private final ArrayList<String> errors = new ArrayList<>();
+
+    /**
+     * Constructs an ImportCommand with the specified command string.
+     *
+     * @param command the path of the file to import
+     */
+    public ImportCommand(String command) {
+        super(command);
+    }
+
+    /**
+     * Executes every command in the file and prints how many were imported, followed by the error
+     * of each line that failed.
+     *
+     * @param activityManager the activity manager to run the commands on
+     * @param enablePrint     whether to print the summary to the UI
+     * @throws PayPalsException if no file is given or the file cannot be read
+     */
+    @Override
+    public void execute(ActivityManager activityManager, boolean enablePrint) throws PayPalsException {
+        if (command.isEmpty()) {
+            throw new PayPalsException(ExceptionMessage.NO_IMPORT_FILE);
+        }
+        List<String> lines = readLines();
+
+        Parser parser = new Parser();
+        importedCount = 0;
+        errors.clear();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith(COMMENT_PREFIX)) {
+                continue;
+            }
+            try {
+                Command c = parser.decodeCommand(line);
+                if (!isImportable(c)) {
+                    throw new PayPalsException(ExceptionMessage.COMMAND_NOT_IMPORTABLE);
+                }
+                c.execute(activityManager, false);
+                importedCount++;
+            } catch (PayPalsException e) {
+                errors.add("Line " + (i + 1) + ": " + e.getMessage());
+            }
+        }
+        Logging.logInfo(() -> "Imported " + importedCount + " commands with " + errors.size() + " errors");
+
+        UI ui = new UI(enablePrint);
+        ui.print("Imported " + importedCount + " commands from " + command + ".");
+        if (!errors.isEmpty()) {
+            ui.print(errors.size() + " lines could not be imported:");
+            for (String error : errors) {
+                ui.print(error);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of commands that were executed successfully in the last run.
+     */
+    public int getImportedCount() {
+        return importedCount;
+    }
+
+    /**
+     * Returns the error of each line that failed in the last run, prefixed with its line number.
+     */
+    public ArrayList<String> getErrors() {
+        return errors;
+    }
+
+    private List<String> readLines() throws PayPalsException {
+        try {
+            Path path = Paths.get(command);
+            if (!Files.isRegularFile(path)) {
+                throw new PayPalsException(ExceptionMessage.IMPORT_FILE_NOT_FOUND, command);
+            }
+            return Files.readAllLines(path, StandardCharsets.UTF_8);
+        } catch (InvalidPathException | IOException e) {
+            throw new PayPalsException(ExceptionMessage.IMPORT_FILE_NOT_FOUND, command);
+        }
+    }
+
+    /**
+     * Only commands that change the activities can be imported. Commands that print, switch groups
+     * or exit the application would not make sense in the middle of a file.
+     */
+    private static boolean isImportable(Command c) {
+        return c instanceof AddCommand || c instanceof AddEqualCommand || c instanceof DeleteCommand
+                || c instanceof EditCommand || c instanceof PaidCommand || c instanceof UnpaidCommand;
+    }
+}
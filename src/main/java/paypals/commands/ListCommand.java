@@ -2,17 +2,16 @@ package paypals.commands;
 
 import paypals.Activity;
 import paypals.ActivityManager;
+import paypals.Money;
 import paypals.Person;
 import paypals.exception.ExceptionMessage;
 import paypals.exception.PayPalsException;
+import paypals.util.FlagTokenizer;
 import paypals.util.Logging;
 import paypals.util.UI;
 
 import java.util.ArrayList;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import static paypals.ActivityManager.getActivities;
+import java.util.List;
 
 /**
  * Handles the "list" command in PayPals, used to list all activities
@@ -24,8 +23,8 @@ public class ListCommand extends Command {
             "list n/NAME\n" +
             "list balance n/NAME";
 
-    private static final Pattern NAME_PATTERN = Pattern.compile("^n/([^/]+)$", Pattern.CASE_INSENSITIVE);
-    private static final Pattern BALANCE_PATTERN = Pattern.compile("^balance n/([^/]+)$", Pattern.CASE_INSENSITIVE);
+    private static final String NAME_PREFIX = "n/";
+    private static final String BALANCE_PREFIX = "balance n/";
     private static final String INDENT = "    ";
 
     private final UI ui;
@@ -40,6 +39,16 @@ public class ListCommand extends Command {
         this.ui = new UI(true);
     }
 
+    /**
+     * Constructs a ListCommand from a command string that has already been tokenized.
+     *
+     * @param tokens the tokens of the command string, e.g., "" or "n/NAME"
+     */
+    public ListCommand(FlagTokenizer.Tokens tokens) {
+        super(tokens);
+        this.ui = new UI(true);
+    }
+
     /**
      * Executes the list command based on whether a name is provided.
      *
@@ -73,8 +82,7 @@ public class ListCommand extends Command {
 
         ui.print("You have " + activityManager.getSize() + " activities:");
 
-        ArrayList<Activity> allActivities = activityManager.getActivityList();
-        printActivities(allActivities);
+        printActivities(activityManager.getActivityList());
     }
 
     /**
@@ -84,30 +92,20 @@ public class ListCommand extends Command {
      * @throws PayPalsException if the command format is invalid or the person is not found
      */
     private void printPersonActivities(ActivityManager activityManager) throws PayPalsException {
-        Matcher matcher = NAME_PATTERN.matcher(command);
-        if (!matcher.matches()) {
+        String name = getTokens().valueAfter(NAME_PREFIX);
+        if (name == null) {
             Logging.logWarning("Invalid input format");
             throw new PayPalsException(ExceptionMessage.INVALID_FORMAT, WRONG_LIST_FORMAT);
         }
 
-        String name = matcher.group(1).trim();
-        ArrayList<Activity> personActivities = getActivities(name, activityManager.getActivityList());
-
-        if (personActivities.isEmpty()) {
+        name = name.trim();
+        if (!activityManager.hasPerson(name)) {
             Logging.logWarning("Payer could not be found");
             throw new PayPalsException(ExceptionMessage.PAYER_NAME_DOES_NOT_EXIST);
         }
 
-        ArrayList<Activity> paid = new ArrayList<>();
-        ArrayList<Activity> unpaid = new ArrayList<>();
-
-        for (Activity activity : personActivities) {
-            if (activity.isActivityFullyPaid(name, false)) {
-                paid.add(activity);
-            } else {
-                unpaid.add(activity);
-            }
-        }
+        ArrayList<Activity> paid = activityManager.getActivities(name, true);
+        ArrayList<Activity> unpaid = activityManager.getActivities(name, false);
 
         ui.print("Settled activities for " + name + ":");
         ui.print(formatActivitiesList(paid, name));
@@ -117,44 +115,23 @@ public class ListCommand extends Command {
     }
 
     /**
-     * Prints the net balance of the person.
+     * Prints the net balance of the person, read from the ledger kept by the activity manager.
      *
      * @param activityManager the manager containing all activities
      * @throws PayPalsException if the command format is invalid
      */
     private void printBalance(ActivityManager activityManager) throws PayPalsException {
-        Matcher matcher = BALANCE_PATTERN.matcher(command);
-        if (!matcher.matches()) {
+        String name = getTokens().valueAfter(BALANCE_PREFIX);
+        if (name == null) {
             throw new PayPalsException(ExceptionMessage.LIST_BALANCE_FORMAT);
         }
 
-        String name = matcher.group(1);
-        double balance = 0.0;
-        int activityCount = 0;
-        for (Activity activity : activityManager.getActivityList()) {
-            if (activity.getPayer().getName().equalsIgnoreCase(name)) {
-                for (Person friend : activity.getAllFriends()) {
-                    if (!friend.hasPaid()) {
-                        balance += friend.getAmount();
-                    }
-                }
-                activityCount++;
-            } else {
-                Person p = activity.getFriend(name);
-                if (p != null) {
-                    activityCount++;
-                    if (!p.hasPaid()) {
-                        balance -= p.getAmount();
-                    }
-                }
-            }
-        }
-        if (activityCount == 0) {
+        if (!activityManager.hasPerson(name)) {
             Logging.logWarning("Payer could not be found");
             throw new PayPalsException(ExceptionMessage.NO_PAYER);
         }
-        ui.print("Net balance for " + name + ": " + (balance >= 0 ? "+$" : "-$") + String.format("%.2f",
-                Math.abs(balance)));
+        Money balance = activityManager.getNetBalance(name);
+        ui.print("Net balance for " + name + ": " + (balance.isNegative() ? "-$" : "+$") + balance.abs());
     }
 
     /**
@@ -162,10 +139,17 @@ public class ListCommand extends Command {
      *
      * @param activities the list of activities to print
      */
-    private void printActivities(ArrayList<Activity> activities) {
-        for (int i = 0; i < activities.size(); i++) {
-            ui.print((i + 1) + ".  " + activities.get(i));
+    private void printActivities(List<Activity> activities) {
+        // Print as a single block, as flushing the console once per activity dominates for large groups
+        StringBuilder output = new StringBuilder();
+        int number = 1;
+        for (Activity activity : activities) {
+            if (number > 1) {
+                output.append("\n");
+            }
+            output.append(number++).append(".  ").append(activity);
         }
+        ui.print(output.toString());
     }
 
     /**
@@ -207,7 +191,7 @@ public class ListCommand extends Command {
         for (Person friend : activity.getAllFriends()) {
             result.append(INDENT).append("Amount owed by: ")
                     .append(friend.getName()).append(" $")
-                    .append(String.format("%.2f", friend.getAmount())).append(" ")
+                    .append(friend.getMoney()).append(" ")
                     .append(friend.hasPaid() ? "[Paid]" : "[Unpaid]").append("\n");
         }
         return result.toString().trim();
@@ -231,10 +215,7 @@ public class ListCommand extends Command {
      */
     public void validatePrefixOrder() throws PayPalsException {
         // Check for incorrect flags, with 2 or more characters before the '/' character
-        String regex = "(?<=\\S[a-zA-Z]\\/)([^\\/]+?)(?=\\s+[a-zA-Z]+\\/|$)";
-        Pattern pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(command);
-        if (matcher.find()) {
+        if (getTokens().hasMalformedFlag()) {
             throw new PayPalsException(ExceptionMessage.INVALID_FORMAT, WRONG_LIST_FORMAT);
         }
     }
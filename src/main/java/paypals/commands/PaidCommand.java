@@ -5,14 +5,10 @@ import paypals.ActivityManager;
 import paypals.Person;
 import paypals.exception.ExceptionMessage;
 import paypals.exception.PayPalsException;
+import paypals.util.FlagTokenizer;
 import paypals.util.UI;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import static paypals.ActivityManager.getActivities;
 
 /**
  * Represents the "paid" command, used to mark an activity as paid for a specific person
@@ -31,6 +27,15 @@ public class PaidCommand extends Command {
         super(command);
     }
 
+    /**
+     * Constructs a PaidCommand from a command string that has already been tokenized.
+     *
+     * @param tokens the tokens of the command string in the form "n/NAME i/IDENTIFIER"
+     */
+    public PaidCommand(FlagTokenizer.Tokens tokens) {
+        super(tokens);
+    }
+
     /**
      * Executes the paid command: marks the activity as paid for the friend
      * or for all friends if the friend is the payer.
@@ -42,13 +47,13 @@ public class PaidCommand extends Command {
     @Override
     public void execute(ActivityManager activityManager, boolean enablePrint) throws PayPalsException {
         UI ui = new UI(enablePrint);
-        Matcher matcher = parseCommand();
+        String[] parameters = parseCommand();
 
         validatePrefixOrder();
 
         try {
-            String friendName = matcher.group(1).trim().toLowerCase();
-            int activityIndex = Integer.parseInt(matcher.group(2)) - 1;
+            String friendName = parameters[0].trim().toLowerCase();
+            int activityIndex = Integer.parseInt(parameters[1]) - 1;
 
             Activity activity = getValidActivity(activityManager, friendName, activityIndex);
             if (validatePayment(activity, friendName)) {
@@ -59,49 +64,31 @@ public class PaidCommand extends Command {
 
             ui.print("Marked as paid!");
         } catch (NumberFormatException e) {
-            throw new PayPalsException(ExceptionMessage.INVALID_IDENTIFIER, matcher.group(2));
+            throw new PayPalsException(ExceptionMessage.INVALID_IDENTIFIER, parameters[1]);
         }
     }
 
     /**
-     * Parses the command string using regex and extracts the name and identifier.
+     * Parses the command string and extracts the name and identifier.
      *
-     * @return a Matcher object with extracted groups
+     * @return the name and the identifier
      * @throws PayPalsException if the command format is invalid
      */
-    public Matcher parseCommand() throws PayPalsException {
-        Pattern pattern = Pattern.compile("^n/([^\\s]+)\\s+i/(\\S+)$", Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(command);
-
-        if (!matcher.matches() || matcher.groupCount() != 2) {
+    public String[] parseCommand() throws PayPalsException {
+        String[] parameters = getTokens().parseNameAndIdentifier();
+        if (parameters == null) {
             throw new PayPalsException(ExceptionMessage.INVALID_FORMAT, WRONG_PAID_FORMAT);
         }
 
-        assert matcher.group(1) != null : "Friend name should not be null";
-        assert matcher.group(2) != null : "Activity index should not be null";
+        assert parameters[0] != null : "Friend name should not be null";
+        assert parameters[1] != null : "Activity index should not be null";
 
-        return matcher;
-    }
-
-    /**
-     * Filters a list of activities to only include those that are not fully paid by the person.
-     *
-     * @param activities the list of activities
-     * @param name       the person's name
-     * @return a list of unpaid activities for the person
-     */
-    public ArrayList<Activity> getUnpaidArray(ArrayList<Activity> activities, String name) {
-        ArrayList<Activity> unpaid = new ArrayList<>();
-        for (Activity activity : activities) {
-            if (!activity.isActivityFullyPaid(name, false)) {
-                unpaid.add(activity);
-            }
-        }
-        return unpaid;
+        return parameters;
     }
 
     /**
      * Retrieves a valid activity object based on the person's name and activity index.
+     * The activity is looked up in the per-person index of the activity manager, without listing the activities.
      *
      * @param activityManager the activity manager
      * @param friendName      the name of the friend
@@ -111,17 +98,15 @@ public class PaidCommand extends Command {
      */
     public Activity getValidActivity(ActivityManager activityManager, String friendName, int index)
             throws PayPalsException {
-        ArrayList<Activity> activities = getPersonActivities(friendName, activityManager.getActivityList());
-        if (activities.isEmpty()) {
+        if (!activityManager.hasPerson(friendName)) {
             throw new PayPalsException(ExceptionMessage.INVALID_FRIEND, friendName);
         }
 
-        ArrayList<Activity> unpaid = getUnpaidArray(activities, friendName);
-
-        if (index < 0 || index >= unpaid.size()) {
+        Activity activity = activityManager.getUnpaidActivity(friendName, index);
+        if (activity == null) {
             throw new PayPalsException(ExceptionMessage.OUTOFBOUNDS_UNSETTLED_IDENTIFIER, Integer.toString(index + 1));
         }
-        return unpaid.get(index);
+        return activity;
     }
 
     /**
@@ -174,17 +159,6 @@ public class PaidCommand extends Command {
         }
     }
 
-    /**
-     * Retrieves all activities associated with a specific person.
-     *
-     * @param name          the name of the person
-     * @param allActivities the list of all activities
-     * @return the list of activities involving the person
-     */
-    public ArrayList<Activity> getPersonActivities(String name, ArrayList<Activity> allActivities) {
-        return getActivities(name, allActivities);
-    }
-
     /**
      * Validates the format of flags in the command string to ensure they conform to the expected pattern.
      *
@@ -203,10 +177,7 @@ public class PaidCommand extends Command {
      */
     public void validatePrefixOrder() throws PayPalsException {
         // Check for incorrect flags, with 2 or more characters before the '/' character
-        String regex = "(?<=\\S[a-zA-Z]\\/)([^\\/]+?)(?=\\s+[a-zA-Z]+\\/|$)";
-        Pattern pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(command);
-        if (matcher.find()) {
+        if (getTokens().hasMalformedFlag()) {
             throw new PayPalsException(ExceptionMessage.INVALID_FORMAT, WRONG_PAID_FORMAT);
         }
     }
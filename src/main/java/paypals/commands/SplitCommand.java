@@ -1,23 +1,28 @@
 package paypals.commands;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
-import paypals.Activity;
 import paypals.ActivityManager;
-import paypals.Person;
+import paypals.Money;
+import paypals.SettlementEngine;
+import paypals.Transaction;
 import paypals.exception.ExceptionMessage;
 import paypals.exception.PayPalsException;
+import paypals.util.Logging;
 import paypals.util.UI;
 
 /**
  * Represents the SplitCommand in PayPals.
- * This command calculates and displays the most efficient way
- * to settle all outstanding debts among participants with the fewest number of transactions.
+ * This command calculates and displays an efficient way to settle all outstanding debts among participants.
+ * The "split optimal" mode guarantees the fewest number of transactions for small groups.
  */
 public class SplitCommand extends Command {
+    private static final String OPTIMAL_MODE = "optimal";
+    // The longest time the exact search for the fewest transactions may take before falling back
+    private static final long OPTIMAL_TIME_BUDGET_MILLIS = 500;
 
     /**
      * Constructs a SplitCommand with the given command string.
@@ -29,150 +34,64 @@ public class SplitCommand extends Command {
     }
 
     /**
-     * Executes the SplitCommand by calculating and printing the optimal settlement plan.
+     * Executes the SplitCommand by calculating and printing the settlement plan.
+     * With "split optimal", the plan with the fewest transactions is searched for, falling back to the
+     * greedy plan when more than {@link SettlementEngine#MAX_OPTIMAL_PEOPLE} people have a balance or the
+     * search does not finish within the time budget.
      *
      * @param activityManager the ActivityManager containing all activities
      * @param enablePrint     whether output should be printed to the UI
      */
     public void execute(ActivityManager activityManager, boolean enablePrint) throws PayPalsException {
-        if (!command.isEmpty()) {
+        boolean isOptimal = command.equalsIgnoreCase(OPTIMAL_MODE);
+        if (!command.isEmpty() && !isOptimal) {
             throw new PayPalsException(ExceptionMessage.INVALID_COMMAND);
         }
         UI ui = new UI(enablePrint);
 
         // Maps lowercase strings to their correctcase equivalents (take the most recent name if there is conflict)
         HashMap<String, String> names = new HashMap<>();
-        HashMap<String, Double> netOwedMap = getNetOwedMap(activityManager, names);
+        HashMap<String, Money> netOwedMap = getNetOwedMap(activityManager, names);
 
-        ArrayList<Person> persons = new ArrayList<>();
-        for (Map.Entry<String, Double> entry : netOwedMap.entrySet()) {
-            if (entry.getValue() == 0.0) {
-                continue;
-            }
-            // Retrieve the correctcase name from names using lowercase name
-            String name = names.get(entry.getKey());
-            persons.add(new Person(name, entry.getValue(), false));
+        // Key the balances by their correctcase names, keeping the order of the ledger
+        LinkedHashMap<String, Money> netBalances = new LinkedHashMap<>();
+        for (Map.Entry<String, Money> entry : netOwedMap.entrySet()) {
+            netBalances.put(names.get(entry.getKey()), entry.getValue());
         }
-
-        ArrayList<String> transactions = new ArrayList<>();
-
-        while (true) {
-            if (persons.isEmpty()) {
-                break;
-            }
-            int maxCreditorIndex = getMaxCreditorIndex(persons);
-            int maxDebtorIndex = getMaxDebtorIndex(persons);
-
-            if (checkIfBalanceIsEmpty(persons.get(maxCreditorIndex))) {
-                break;
+        SettlementEngine engine = new SettlementEngine();
+        ArrayList<Transaction> transactions = null;
+        if (isOptimal && engine.countUnsettled(netBalances) > SettlementEngine.MAX_OPTIMAL_PEOPLE) {
+            Logging.logWarning("Too many people for optimal settlement, falling back to greedy settlement");
+            ui.print("Too many people to find the fewest transactions, showing a quicker settlement instead.");
+        } else if (isOptimal) {
+            transactions = engine.settleOptimally(netBalances, OPTIMAL_TIME_BUDGET_MILLIS);
+            if (transactions == null) {
+                Logging.logWarning("Optimal settlement not found within budget, falling back to greedy settlement");
+                ui.print("Finding the fewest transactions took too long, showing a quicker settlement instead.");
             }
-
-            double amountToSettle = Math.min(
-                    persons.get(maxCreditorIndex).getAmount(),
-                    Math.abs(persons.get(maxDebtorIndex).getAmount()));
-
-            persons.get(maxCreditorIndex).addAmount(-amountToSettle);
-            persons.get(maxDebtorIndex).addAmount(amountToSettle);
-
-            String transaction = persons.get(maxDebtorIndex).getName() + " pays " +
-                    persons.get(maxCreditorIndex).getName() + " $" + String.format("%.2f", amountToSettle);
-            transactions.add(transaction);
-        }
-
-        ui.print("Best way to settle debts:");
-        for (String t : transactions) {
-            ui.print(t);
         }
-    }
-
-    /**
-     * Checks whether a given person's balance is effectively zero.
-     *
-     * @param person the person to check
-     * @return true if the amount is close to zero; false otherwise
-     */
-    public boolean checkIfBalanceIsEmpty(Person person) {
-        double threshold = 1e-9;
-        return Math.abs(person.getAmount()) < threshold;
-    }
-
-    /**
-     * Finds the index of the person with the maximum positive balance (creditor).
-     *
-     * @param persons the list of persons
-     * @return the index of the maximum creditor
-     */
-    public int getMaxCreditorIndex(ArrayList<Person> persons) {
-        int maxIndex = 0;
-        for (int i = 1; i < persons.size(); i++) {
-            if (persons.get(i).getAmount() > persons.get(maxIndex).getAmount()) {
-                maxIndex = i;
-            }
+        if (transactions == null) {
+            transactions = engine.settle(netBalances);
         }
-        return maxIndex;
-    }
 
-    /**
-     * Finds the index of the person with the maximum negative balance (debtor).
-     *
-     * @param persons the list of persons
-     * @return the index of the maximum debtor
-     */
-    public int getMaxDebtorIndex(ArrayList<Person> persons) {
-        int minIndex = 0;
-        for (int i = 1; i < persons.size(); i++) {
-            if (persons.get(i).getAmount() < persons.get(minIndex).getAmount()) {
-                minIndex = i;
-            }
+        ui.print("Best way to settle debts:");
+        for (Transaction transaction : transactions) {
+            ui.print(transaction.toString());
         }
-        return minIndex;
     }
 
     /**
-     * Computes the net owed amount for each person by aggregating all unpaid balances.
+     * Retrieves the net owed amount for each person from the ledger kept by the activity manager.
      *
      * @param activityManager   the manager containing all activities
-     * @param names             a map containing payer and friend names with their lowercase equivalents
+     * @param names             a map to be filled with the lowercase names and their most recent correctcase names
      * @return                  a map of each person's name to their net owed amount
      */
-    public HashMap<String, Double> getNetOwedMap(ActivityManager activityManager, HashMap<String, String> names) {
-        HashMap<String, Double> netOwedMap = new HashMap<>();
-        int activitiesSize = activityManager.getSize();
-        for (int i = 0; i < activitiesSize; i++) {
-            Activity activity = activityManager.getActivity(i);
-            addAmountToNetOwedMap(activity, netOwedMap, names);
+    public HashMap<String, Money> getNetOwedMap(ActivityManager activityManager, HashMap<String, String> names) {
+        HashMap<String, Money> netOwedMap = activityManager.getNetBalances();
+        for (String lowercaseName : netOwedMap.keySet()) {
+            names.put(lowercaseName, activityManager.getDisplayName(lowercaseName));
         }
         return netOwedMap;
     }
-
-    /**
-     * Updates the net owed map based on a single activity's unpaid debts.
-     *
-     * @param activity     the activity to process
-     * @param names             a map containing payer and friend names with their lowercase equivalents
-     * @param netOwedMap   the map storing cumulative net owed balances
-     */
-    public void addAmountToNetOwedMap(Activity activity, HashMap<String, Double> netOwedMap,
-                                      HashMap<String, String> names) {
-        String payerName = activity.getPayer().getName();
-        String lowercasePayerName = payerName.toLowerCase();
-        Collection<Person> allFriends = activity.getAllFriends();
-
-        names.put(lowercasePayerName, payerName);
-
-        for (Person friend : allFriends) {
-            if (friend.hasPaid()) {
-                continue;
-            }
-
-            String friendName = friend.getName();
-            String lowercaseFriendName = friendName.toLowerCase();
-            double amountOwed = friend.getAmount();
-
-            names.put(lowercaseFriendName, friendName);
-
-            netOwedMap.put(lowercaseFriendName, netOwedMap.getOrDefault(lowercaseFriendName, 0.0) - amountOwed);
-            netOwedMap.put(lowercasePayerName, netOwedMap.getOrDefault(lowercasePayerName, 0.0) + amountOwed);
-        }
-    }
 }
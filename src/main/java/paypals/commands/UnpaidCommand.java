@@ -5,14 +5,10 @@ import paypals.ActivityManager;
 import paypals.Person;
 import paypals.exception.ExceptionMessage;
 import paypals.exception.PayPalsException;
+import paypals.util.FlagTokenizer;
 import paypals.util.UI;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import static paypals.ActivityManager.getActivities;
 
 /**
  * Handles the "unpaid" command to mark an activity as unpaid for a specific person,
@@ -31,6 +27,15 @@ public class UnpaidCommand extends Command {
         super(command);
     }
 
+    /**
+     * Constructs an UnpaidCommand from a command string that has already been tokenized.
+     *
+     * @param tokens the tokens of the input command in the format "n/NAME i/IDENTIFIER"
+     */
+    public UnpaidCommand(FlagTokenizer.Tokens tokens) {
+        super(tokens);
+    }
+
     /**
      * Executes the unpaid command, marking an activity as unpaid either for a friend
      * or all friends if the friend is the payer.
@@ -42,11 +47,11 @@ public class UnpaidCommand extends Command {
     @Override
     public void execute(ActivityManager activityManager, boolean enablePrint) throws PayPalsException {
         UI ui = new UI(enablePrint);
-        Matcher matcher = parseCommand();
+        String[] parameters = parseCommand();
 
         try {
-            String friendName = matcher.group(1).trim().toLowerCase();
-            int activityIndex = Integer.parseInt(matcher.group(2)) - 1;
+            String friendName = parameters[0].trim().toLowerCase();
+            int activityIndex = Integer.parseInt(parameters[1]) - 1;
 
             Activity activity = getValidActivity(activityManager, friendName, activityIndex);
             if (validatePayment(activity, friendName)) {
@@ -57,49 +62,31 @@ public class UnpaidCommand extends Command {
 
             ui.print("Marked as unpaid!");
         } catch (NumberFormatException e) {
-            throw new PayPalsException(ExceptionMessage.INVALID_IDENTIFIER, matcher.group(2));
+            throw new PayPalsException(ExceptionMessage.INVALID_IDENTIFIER, parameters[1]);
         }
     }
 
     /**
-     * Parses the command and extracts the name and activity index using regex.
+     * Parses the command and extracts the name and activity index.
      *
-     * @return the matcher containing the parsed groups
+     * @return the name and the identifier
      * @throws PayPalsException if format is invalid
      */
-    public Matcher parseCommand() throws PayPalsException {
-        Pattern pattern = Pattern.compile("^n/([^\\s]+)\\s+i/(\\S+)$", Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(command);
-
-        if (!matcher.matches() || matcher.groupCount() != 2) {
+    public String[] parseCommand() throws PayPalsException {
+        String[] parameters = getTokens().parseNameAndIdentifier();
+        if (parameters == null) {
             throw new PayPalsException(ExceptionMessage.INVALID_FORMAT, WRONG_UNPAID_FORMAT);
         }
 
-        assert matcher.group(1) != null : "Friend name should not be null";
-        assert matcher.group(2) != null : "Activity index should not be null";
+        assert parameters[0] != null : "Friend name should not be null";
+        assert parameters[1] != null : "Activity index should not be null";
 
-        return matcher;
-    }
-
-    /**
-     * Gets a list of activities that are fully paid by the given person.
-     *
-     * @param activities the list of activities to check
-     * @param name       the name of the person
-     * @return a list of activities marked as paid by that person
-     */
-    public ArrayList<Activity> getPaidArray(ArrayList<Activity> activities, String name) {
-        ArrayList<Activity> paid = new ArrayList<>();
-        for (Activity activity : activities) {
-            if (activity.isActivityFullyPaid(name, false)) {
-                paid.add(activity);
-            }
-        }
-        return paid;
+        return parameters;
     }
 
     /**
      * Validates and retrieves an activity at the given index from the person's paid activities.
+     * The activity is looked up in the per-person index of the activity manager, without listing the activities.
      *
      * @param activityManager the activity manager
      * @param friendName      the person's name
@@ -109,17 +96,15 @@ public class UnpaidCommand extends Command {
      */
     public Activity getValidActivity(ActivityManager activityManager, String friendName, int index)
             throws PayPalsException {
-        ArrayList<Activity> activities = getPersonActivities(friendName, activityManager.getActivityList());
-        if (activities.isEmpty()) {
+        if (!activityManager.hasPerson(friendName)) {
             throw new PayPalsException(ExceptionMessage.INVALID_FRIEND, friendName);
         }
 
-        ArrayList<Activity> paid = getPaidArray(activities, friendName);
-
-        if (index < 0 || index >= paid.size()) {
+        Activity activity = activityManager.getPaidActivity(friendName, index);
+        if (activity == null) {
             throw new PayPalsException(ExceptionMessage.OUTOFBOUNDS_SETTLED_IDENTIFIER, Integer.toString(index + 1));
         }
-        return paid.get(index);
+        return activity;
     }
 
     /**
@@ -174,17 +159,6 @@ public class UnpaidCommand extends Command {
         }
     }
 
-    /**
-     * Retrieves all activities involving the specified person.
-     *
-     * @param name          the person's name
-     * @param allActivities all available activities
-     * @return the list of activities involving the person
-     */
-    public ArrayList<Activity> getPersonActivities(String name, ArrayList<Activity> allActivities) {
-        return getActivities(name, allActivities);
-    }
-
     /**
      * Validates the format of flags in the command string to ensure they conform to the expected pattern.
      *
@@ -203,10 +177,7 @@ public class UnpaidCommand extends Command {
      */
     public void validatePrefixOrder() throws PayPalsException {
         // Check for incorrect flags, with 2 or more characters before the '/' character
-        String regex = "(?<=\\S[a-zA-Z]\\/)([^\\/]+?)(?=\\s+[a-zA-Z]+\\/|$)";
-        Pattern pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(command);
-        if (matcher.find()) {
+        if (getTokens().hasMalformedFlag()) {
             throw new PayPalsException(ExceptionMessage.INVALID_FORMAT, WRONG_UNPAID_FORMAT);
         }
     }
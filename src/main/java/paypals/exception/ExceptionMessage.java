@@ -3,7 +3,7 @@ package paypals.exception;
 public enum ExceptionMessage {
     INVALID_COMMAND("INPUT ERROR: Invalid command entered" +
             "\nTry these commands: add | addequal | delete | " +
-            "edit | list | split | paid | unpaid | change | exit | help"),
+            "edit | list | split | paid | unpaid | import | balances | change | exit | help"),
     NO_DESCRIPTION("INPUT ERROR: No activity description, d/DESCRIPTION"),
     NO_IDENTIFIER("INPUT ERROR: No identifier entered, i/IDENTIFIER"),
     INVALID_FORMAT("INPUT ERROR: Correct format should be: "),
@@ -50,16 +50,14 @@ public enum ExceptionMessage {
     FRIEND_NAME_SAME_AS_PAYER("INPUT ERROR: New name cannot be the same as the payer."),
     FRIEND_NAME_SAME_AS_ANOTHER_FRIEND("INPUT ERROR: New friend name cannot be the same as another friend."),
     PAYER_NAME_SAME_AS_FRIEND("INPUT ERROR: New payer name cannot be the same a friend already in the activity"),
-    MORE_THAN_1000_ACTIVITIES("You have hit 1000 or more activities for this group, " +
-            "you are unable to add more activities"),
-    LARGE_NUMBER_OF_ACTIVITIES("You have somehow entered a large number of activities (probably through modifying " +
-            "save files), please ensure that there are less than 1000 activities for any given group" +
-            "\n Exiting the program now..."),
     MULTIPLE_AMOUNTS_FOR_ADDEQUAL("INPUT ERROR: Only one amount can be provided."),
     PAYER_NAME_DOES_NOT_EXIST("INPUT ERROR: Payer name entered does not exist."),
     EXTRA_PARAMETERS("INPUT ERROR: Extra parameters detected, please follow the correct format."),
     MULTIPLE_IDENTIFIER("INPUT ERROR: Multiple Identifiers entered"),
-    INVALID_DELETE_FORMAT("INPUT ERROR: Incorrect delete command format. The format is: delete i/ID");
+    INVALID_DELETE_FORMAT("INPUT ERROR: Incorrect delete command format. The format is: delete i/ID"),
+    NO_IMPORT_FILE("INPUT ERROR: No file entered, import FILE"),
+    IMPORT_FILE_NOT_FOUND("INPUT ERROR: Unable to read the file to import: "),
+    COMMAND_NOT_IMPORTABLE("INPUT ERROR: Only add, addequal, delete, edit, paid and unpaid commands can be imported");
     private final String message;
 
     ExceptionMessage(String message) {
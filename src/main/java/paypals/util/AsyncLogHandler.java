@@ -0,0 +1,158 @@
+package paypals.util;
+
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+
+/**
+ * Hands log records to a background thread, which writes them to another handler in batches.
+ *
+ * <p>Records wait in a bounded queue. When the queue is full, a record is either dropped or the logging thread
+ * waits for space, depending on the {@link OverflowPolicy}. The target handler is flushed once per batch
+ * rather than once per record.</p>
+ */
+public class AsyncLogHandler extends Handler {
+
+    /**
+     * What to do with a record when the queue is full.
+     */
+    public enum OverflowPolicy {
+        /** Discard the record, so logging never waits. */
+        DROP,
+        /** Wait until the writer has made space, so no record is lost. */
+        BLOCK
+    }
+
+    private static final int BATCH_SIZE = 256;
+    private static final long FLUSH_TIMEOUT_MILLIS = 2000;
+
+    private final Handler target;
+    private final OverflowPolicy overflowPolicy;
+    private final ArrayBlockingQueue<LogRecord> queue;
+    private final Thread writer;
+    private final AtomicLong enqueuedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    // Number of records written to the target, guarded by this handler's monitor
+    private long writtenCount;
+    private volatile boolean isClosed;
+
+    /**
+     * Constructs the handler and starts its writer thread.
+     *
+     * @param target         the handler that the records are written to
+     * @param capacity       the maximum number of records waiting to be written
+     * @param overflowPolicy what to do with a record when the queue is full
+     */
+    public AsyncLogHandler(Handler target, int capacity, OverflowPolicy overflowPolicy) {
+        this.target = target;
+        this.overflowPolicy = overflowPolicy;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = new Thread(this::writeRecords, "PayPals-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (isClosed || !isLoggable(record)) {
+            return;
+        }
+        // The caller is found from the current stack, so it must be looked up before the record leaves this thread
+        record.getSourceMethodName();
+        if (overflowPolicy == OverflowPolicy.DROP) {
+            if (!queue.offer(record)) {
+                droppedCount.incrementAndGet();
+                return;
+            }
+        } else {
+            try {
+                queue.put(record);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                droppedCount.incrementAndGet();
+                return;
+            }
+        }
+        enqueuedCount.incrementAndGet();
+    }
+
+    /**
+     * Waits until every record published so far has been written and flushed to the target,
+     * or until a timeout if the writer cannot keep up.
+     */
+    @Override
+    public void flush() {
+        long publishedCount = enqueuedCount.get();
+        long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT_MILLIS;
+        synchronized (this) {
+            while (writtenCount < publishedCount && writer.isAlive()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return;
+                }
+                try {
+                    wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the records still waiting, stops the writer thread and closes the target.
+     */
+    @Override
+    public void close() {
+        if (isClosed) {
+            return;
+        }
+        flush();
+        isClosed = true;
+        writer.interrupt();
+        try {
+            writer.join(FLUSH_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        target.close();
+    }
+
+    /**
+     * Returns the number of records discarded because the queue was full.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    private void writeRecords() {
+        ArrayList<LogRecord> batch = new ArrayList<>(BATCH_SIZE);
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                // The handler is closing, so write whatever is left and stop
+                queue.drainTo(batch);
+                writeBatch(batch);
+                return;
+            }
+            queue.drainTo(batch, BATCH_SIZE - 1);
+            writeBatch(batch);
+        }
+    }
+
+    private void writeBatch(ArrayList<LogRecord> batch) {
+        for (LogRecord record : batch) {
+            target.publish(record);
+        }
+        target.flush();
+        synchronized (this) {
+            writtenCount += batch.size();
+            notifyAll();
+        }
+        batch.clear();
+    }
+}
@@ -0,0 +1,388 @@
+package paypals.util;
+
+import paypals.Activity;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Reads and writes a group file in a compact binary format, as an alternative to the text format.
+ *
+ * <p>The file starts with the magic bytes "PPGB", a format version and the journal checkpoint. Every name is
+ * written once, in a dictionary, and activities refer to names by their index in it. Numbers are written as
+ * variable-length integers, amounts as whole cents, and the paid flags of an activity are packed into bits.</p>
+ *
+ * <pre>
+ * header:     MAGIC VERSION CHECKPOINT
+ * dictionary: COUNT (LENGTH UTF8_BYTES)...
+ * activities: COUNT (DESCRIPTION PAYER_INDEX FRIEND_COUNT (NAME_INDEX CENTS)... PAID_BITS)...
+ * </pre>
+ */
+public class BinaryGroupFile {
+    private static final byte[] MAGIC = {'P', 'P', 'G', 'B'};
+    private static final int VERSION = 1;
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+    // Fewest bytes taken by a dictionary name (its length), a record (description length, payer and friend count)
+    // and a friend (name index and amount)
+    private static final int MIN_NAME_BYTES = 1;
+    private static final int MIN_RECORD_BYTES = 3;
+    private static final int MIN_FRIEND_BYTES = 2;
+
+    private BinaryGroupFile() {
+    }
+
+    /**
+     * Represents the fields of a stored activity, copied out of the activity so that it can be written
+     * on another thread.
+     */
+    public static class Record {
+        private final String description;
+        private final String payer;
+        private final String[] friends;
+        private final long[] cents;
+        private final boolean[] hasPaid;
+
+        Record(String description, String payer, String[] friends, long[] cents, boolean[] hasPaid) {
+            this.description = description;
+            this.payer = payer;
+            this.friends = friends;
+            this.cents = cents;
+            this.hasPaid = hasPaid;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public String getPayer() {
+            return payer;
+        }
+
+        public String[] getFriends() {
+            return friends;
+        }
+
+        public long[] getCents() {
+            return cents;
+        }
+
+        public boolean[] getHasPaid() {
+            return hasPaid;
+        }
+    }
+
+    /**
+     * Represents the content of a binary group file.
+     */
+    public static class Snapshot {
+        private final long checkpoint;
+        private final ArrayList<Record> records;
+        private final boolean isComplete;
+
+        Snapshot(long checkpoint, ArrayList<Record> records, boolean isComplete) {
+            this.checkpoint = checkpoint;
+            this.records = records;
+            this.isComplete = isComplete;
+        }
+
+        /** Returns the last journal sequence number contained in the file. */
+        public long getCheckpoint() {
+            return checkpoint;
+        }
+
+        /** Returns the activities that could be read, in the order they were written. */
+        public ArrayList<Record> getRecords() {
+            return records;
+        }
+
+        /** Returns false if the file ended in the middle of an activity, so later activities were lost. */
+        public boolean isComplete() {
+            return isComplete;
+        }
+    }
+
+    /**
+     * Copies the fields of an activity into a record.
+     *
+     * @param activity the activity to copy
+     * @return the record of the activity
+     */
+    public static Record toRecord(Activity activity) {
+        String[] friends = new String[activity.getFriendCount()];
+        long[] cents = new long[friends.length];
+        boolean[] hasPaid = new boolean[friends.length];
+        for (int i = 0; i < friends.length; i++) {
+            friends[i] = activity.getFriendName(i);
+            cents[i] = activity.getFriendCents(i);
+            hasPaid[i] = activity.isFriendPaid(i);
+        }
+        return new Record(activity.getDescription(), activity.getPayer().getName(), friends, cents, hasPaid);
+    }
+
+    /**
+     * Checks whether a file starts with the magic bytes of the binary format.
+     *
+     * @param file the group file
+     * @return true if the file is in the binary format
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isBinary(File file) throws IOException {
+        try (FileChannel channel = new FileInputStream(file).getChannel()) {
+            ByteBuffer buffer = ByteBuffer.allocate(MAGIC.length);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Keep reading until the magic bytes are in or the file ends
+            }
+            return !buffer.hasRemaining() && hasMagic(buffer.flip());
+        }
+    }
+
+    /**
+     * Writes the records to a channel, such as that of a newly created file.
+     *
+     * @param channel    the channel to write to
+     * @param checkpoint the last journal sequence number contained in the records
+     * @param records    the activities to write
+     * @throws IOException if the records cannot be written
+     */
+    public static void write(WritableByteChannel channel, long checkpoint, List<Record> records) throws IOException {
+        LinkedHashMap<String, Integer> dictionary = new LinkedHashMap<>();
+        for (Record record : records) {
+            dictionary.putIfAbsent(record.payer, dictionary.size());
+            for (String friend : record.friends) {
+                dictionary.putIfAbsent(friend, dictionary.size());
+            }
+        }
+
+        Encoder encoder = new Encoder();
+        encoder.putBytes(MAGIC);
+        encoder.putVarLong(VERSION);
+        encoder.putVarLong(checkpoint);
+        encoder.putVarLong(dictionary.size());
+        for (String name : dictionary.keySet()) {
+            encoder.putString(name);
+        }
+        encoder.putVarLong(records.size());
+        for (Record record : records) {
+            encoder.putString(record.description);
+            encoder.putVarLong(dictionary.get(record.payer));
+            encoder.putVarLong(record.friends.length);
+            for (int i = 0; i < record.friends.length; i++) {
+                encoder.putVarLong(dictionary.get(record.friends[i]));
+                encoder.putVarLong(zigZag(record.cents[i]));
+            }
+            encoder.putBits(record.hasPaid);
+        }
+
+        ByteBuffer buffer = encoder.toBuffer();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Reads a binary group file, memory-mapping it if it is large and mapping is allowed. If the file ends in the
+     * middle of an activity, the activities before it are still returned.
+     *
+     * @param file       the file to read
+     * @param isMappable whether a large file may be memory-mapped, which must be false if it is about to be
+     *                   rewritten
+     * @return the checkpoint and activities in the file
+     * @throws IOException if the file cannot be read, or its header or dictionary is not valid
+     */
+    public static Snapshot read(File file, boolean isMappable) throws IOException {
+        ByteBuffer buffer = MappedFileReader.read(file, isMappable);
+        return decode(buffer);
+    }
+
+    /**
+     * Decodes the content of a binary group file.
+     *
+     * @param buffer the content of the file, from its first byte
+     * @return the checkpoint and activities in the content
+     * @throws IOException if the header or dictionary is not valid
+     */
+    static Snapshot decode(ByteBuffer buffer) throws IOException {
+        long checkpoint;
+        String[] dictionary;
+        int recordCount;
+        try {
+            if (!hasMagic(buffer) || getVarLong(buffer) != VERSION) {
+                throw new IOException("Unsupported group file format");
+            }
+            checkpoint = getVarLong(buffer);
+            dictionary = new String[getCount(buffer, MIN_NAME_BYTES)];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = getString(buffer);
+            }
+            recordCount = getCount(buffer, MIN_RECORD_BYTES);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Group file header is corrupted", e);
+        }
+
+        ArrayList<Record> records = new ArrayList<>(recordCount);
+        try {
+            for (int i = 0; i < recordCount; i++) {
+                records.add(getRecord(buffer, dictionary));
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            return new Snapshot(checkpoint, records, false);
+        }
+        return new Snapshot(checkpoint, records, true);
+    }
+
+    private static Record getRecord(ByteBuffer buffer, String[] dictionary) {
+        String description = getString(buffer);
+        String payer = dictionary[getIndex(buffer)];
+        int friendCount = getCount(buffer, MIN_FRIEND_BYTES);
+        String[] friends = new String[friendCount];
+        long[] cents = new long[friendCount];
+        for (int i = 0; i < friendCount; i++) {
+            friends[i] = dictionary[getIndex(buffer)];
+            cents[i] = unZigZag(getVarLong(buffer));
+        }
+        boolean[] hasPaid = getBits(buffer, friendCount);
+        return new Record(description, payer, friends, cents, hasPaid);
+    }
+
+    private static boolean hasMagic(ByteBuffer buffer) {
+        if (buffer.remaining() < MAGIC.length) {
+            return false;
+        }
+        for (byte b : MAGIC) {
+            if (buffer.get() != b) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Variable-length integer is too long");
+    }
+
+    /**
+     * Reads the number of items that follow, checking that the rest of the file is long enough to hold them,
+     * so that a corrupted count cannot make the reader allocate a huge array.
+     *
+     * @param buffer        the content being read
+     * @param minItemBytes  the fewest bytes that each item takes up
+     * @return the number of items
+     * @throws IllegalArgumentException if the count is negative or the items cannot fit in the rest of the file
+     */
+    private static int getCount(ByteBuffer buffer, int minItemBytes) {
+        long count = getVarLong(buffer);
+        if (count < 0 || count > buffer.remaining() / minItemBytes) {
+            throw new IllegalArgumentException("Count out of range: " + count);
+        }
+        return (int) count;
+    }
+
+    /**
+     * Reads an index into the dictionary, which is checked against the dictionary when it is used.
+     */
+    private static int getIndex(ByteBuffer buffer) {
+        long index = getVarLong(buffer);
+        if (index < 0 || index > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Index out of range: " + index);
+        }
+        return (int) index;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = getCount(buffer, Byte.BYTES);
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean[] getBits(ByteBuffer buffer, int count) {
+        boolean[] bits = new boolean[count];
+        int current = 0;
+        for (int i = 0; i < count; i++) {
+            if (i % Byte.SIZE == 0) {
+                current = buffer.get();
+            }
+            bits[i] = (current & (1 << (i % Byte.SIZE))) != 0;
+        }
+        return bits;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Collects the bytes of a file in a buffer that grows as needed.
+     */
+    private static class Encoder {
+        private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+        void putBytes(byte[] bytes) {
+            ensureRemaining(bytes.length);
+            buffer.put(bytes);
+        }
+
+        void putVarLong(long value) {
+            ensureRemaining(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        void putString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putVarLong(bytes.length);
+            putBytes(bytes);
+        }
+
+        void putBits(boolean[] bits) {
+            ensureRemaining((bits.length + Byte.SIZE - 1) / Byte.SIZE);
+            int current = 0;
+            for (int i = 0; i < bits.length; i++) {
+                if (bits[i]) {
+                    current |= 1 << (i % Byte.SIZE);
+                }
+                if (i % Byte.SIZE == Byte.SIZE - 1 || i == bits.length - 1) {
+                    buffer.put((byte) current);
+                    current = 0;
+                }
+            }
+        }
+
+        ByteBuffer toBuffer() {
+            return buffer.flip();
+        }
+
+        private void ensureRemaining(int length) {
+            if (buffer.remaining() >= length) {
+                return;
+            }
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + length));
+            larger.put(buffer.flip());
+            buffer = larger;
+        }
+    }
+}
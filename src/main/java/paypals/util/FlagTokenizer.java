@@ -0,0 +1,461 @@
+package paypals.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Splits command parameters into flags (e.g., "d/", "n/") and their values, without compiling or running any
+ * regular expression.
+ *
+ * <p>{@link #tokenize(String)} passes over the input once and records every '/' together with the run of
+ * letters and the whitespace in front of it. The {@link Tokens} it returns answers every question the parser
+ * and the commands ask about the input, such as the value of a flag or the parts between flags, from those
+ * positions alone, so the input is never scanned again.</p>
+ *
+ * <p>A flag is a letter followed by '/'. The value of a flag runs until the whitespace in front of the next flag,
+ * or until the end of the input, and may not contain '/'. Letters are compared without regard to case.</p>
+ */
+public class FlagTokenizer {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private FlagTokenizer() {
+    }
+
+    /**
+     * Represents a flag and the value that follows it.
+     */
+    public static class Flag {
+        private final char prefix;
+        private final String value;
+
+        private Flag(char prefix, String value) {
+            this.prefix = prefix;
+            this.value = value;
+        }
+
+        /** Returns the flag letter in lower case. */
+        public char getPrefix() {
+            return prefix;
+        }
+
+        /** Returns the value of the flag, trimmed. */
+        public String getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * Tokenizes command parameters in a single pass.
+     *
+     * @param input the command parameters
+     * @return the tokens of the input
+     */
+    public static Tokens tokenize(String input) {
+        Tokens tokens = new Tokens(input);
+        int length = input.length();
+        int letterStart = 0;
+        int spaceStart = 0;
+        for (int i = 0; i < length; i++) {
+            char c = input.charAt(i);
+            if (isSpace(c)) {
+                if (i == 0 || !isSpace(input.charAt(i - 1))) {
+                    spaceStart = i;
+                    tokens.addSpaceRun(i);
+                }
+                tokens.extendSpaceRun(i + 1);
+                letterStart = i + 1;
+            } else if (isLetter(c)) {
+                if (i == 0 || !isLetter(input.charAt(i - 1))) {
+                    letterStart = i;
+                }
+            } else {
+                if (c == '/') {
+                    boolean isAfterSpace = letterStart > 0 && isSpace(input.charAt(letterStart - 1));
+                    tokens.addSlash(i, letterStart, isAfterSpace ? spaceStart : letterStart);
+                }
+                letterStart = i + 1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * The positions of the '/' characters in some command parameters, with everything that can be worked out
+     * from them.
+     */
+    public static class Tokens {
+        private final String input;
+        // For the K-th '/': its index, the start of the run of letters right in front of it, which is the index
+        // of the '/' if there are none, and the start of the whitespace in front of those letters, which is the
+        // start of the letters if there is none
+        private int[] slashes = new int[INITIAL_CAPACITY];
+        private int[] letterStarts = new int[INITIAL_CAPACITY];
+        private int[] spaceStarts = new int[INITIAL_CAPACITY];
+        private int slashCount;
+        // The number of runs of whitespace, and the bounds of the first one
+        private int spaceRunCount;
+        private int firstSpaceStart = -1;
+        private int firstSpaceEnd = -1;
+
+        private Tokens(String input) {
+            this.input = input;
+        }
+
+        public String getInput() {
+            return input;
+        }
+
+        /**
+         * Finds the value of the first flag with the given letter that starts a word and is followed by a valid
+         * value.
+         *
+         * @param prefix the flag letter
+         * @return the trimmed value, or null if there is no such flag
+         */
+        public String findValue(char prefix) {
+            char lowercasePrefix = toLowerCase(prefix);
+            for (int k = 0; k < slashCount; k++) {
+                if (!isWordFlag(k) || toLowerCase(input.charAt(letterStarts[k])) != lowercasePrefix) {
+                    continue;
+                }
+                int end = findValueEnd(slashes[k] + 1, null);
+                if (end != -1) {
+                    return input.substring(slashes[k] + 1, end).trim();
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Checks for a malformed flag, which has two or more letters before the '/' (e.g., "ab/") or is joined
+         * to the word in front of it (e.g., "lunchd/"), followed by a value.
+         *
+         * @return true if a malformed flag is found
+         */
+        public boolean hasMalformedFlag() {
+            for (int k = 0; k < slashCount; k++) {
+                boolean isMalformed = slashes[k] >= 2 && letterStarts[k] < slashes[k]
+                        && (letterStarts[k] < slashes[k] - 1 || spaceStarts[k] == letterStarts[k]);
+                if (isMalformed && findValueEnd(slashes[k] + 1, null) != -1) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Splits the input into the flags with the allowed letters, in the order they appear. Only those letters
+         * are treated as the start of the next flag, and whitespace directly after the '/' is skipped.
+         *
+         * @param prefixes the allowed flag letters, in lower case
+         * @return the flags and their trimmed values
+         */
+        public ArrayList<Flag> getFlags(String prefixes) {
+            ArrayList<Flag> flags = new ArrayList<>();
+            int position = 0;
+            for (int k = 0; k < slashCount; k++) {
+                int letter = slashes[k] - 1;
+                if (letter < position || letter < letterStarts[k]) {
+                    continue;
+                }
+                char prefix = toLowerCase(input.charAt(letter));
+                if (prefixes.indexOf(prefix) == -1) {
+                    continue;
+                }
+                int valueStart = skipSpaces(input, slashes[k] + 1);
+                int end = -1;
+                // Give back skipped whitespace to the value if nothing else can form one
+                for (; valueStart > slashes[k] && end == -1; valueStart--) {
+                    end = findValueEnd(valueStart, prefixes);
+                    if (end != -1) {
+                        flags.add(new Flag(prefix, input.substring(valueStart, end).trim()));
+                    }
+                }
+                position = end == -1 ? letter + 1 : end;
+            }
+            return flags;
+        }
+
+        /**
+         * Splits the input around every flag with the given letter, removing the whitespace in front of the flag.
+         * Empty parts at the end are dropped.
+         *
+         * @param prefix the flag letter
+         * @return the parts of the input between the flags
+         */
+        public String[] splitOnFlag(char prefix) {
+            return toStrings(splitOnFlag(prefix, 0, input.length()));
+        }
+
+        /**
+         * Splits the part of the input in front of the first occurrence of a delimiter around every flag with the
+         * given letter, as {@link #splitOnFlag(char)} does.
+         *
+         * @param prefix    the flag letter
+         * @param delimiter the letter of the delimiter, such as 'a' for "a/", which may appear anywhere
+         * @return the parts of the input between the flags, in front of the delimiter
+         */
+        public String[] splitOnFlagBefore(char prefix, char delimiter) {
+            int end = input.length();
+            char lowercaseDelimiter = toLowerCase(delimiter);
+            for (int k = 0; k < slashCount; k++) {
+                if (isDelimiter(k, lowercaseDelimiter)) {
+                    end = slashes[k] - 1;
+                    break;
+                }
+            }
+            return toStrings(splitOnFlag(prefix, 0, end));
+        }
+
+        /**
+         * Splits the input around every flag with the given letter, then splits each of the parts after the first
+         * around every flag with the inner letter, as {@link #splitOnFlag(char)} does.
+         *
+         * @param prefix      the flag letter of the outer parts, such as 'f'
+         * @param innerPrefix the flag letter within each part, such as 'a'
+         * @return the parts after the first outer flag, each split into its inner parts
+         */
+        public String[][] splitOnFlags(char prefix, char innerPrefix) {
+            int[] bounds = splitOnFlag(prefix, 0, input.length());
+            String[][] parts = new String[Math.max(0, bounds.length / 2 - 1)][];
+            for (int part = 1; part < bounds.length / 2; part++) {
+                parts[part - 1] = toStrings(splitOnFlag(innerPrefix, bounds[2 * part], bounds[2 * part + 1]));
+            }
+            return parts;
+        }
+
+        /**
+         * Splits the input around every occurrence of the delimiter, which is a letter followed by '/' anywhere in
+         * the input, ignoring the case of the letter. Empty parts at the end are dropped.
+         *
+         * @param delimiter the letter of the delimiter, such as 'i' for "i/"
+         * @return the parts of the input between the delimiters
+         */
+        public String[] splitIgnoreCase(char delimiter) {
+            char lowercaseDelimiter = toLowerCase(delimiter);
+            int[] bounds = new int[2 * (slashCount + 1)];
+            int boundCount = 0;
+            int partStart = 0;
+            for (int k = 0; k < slashCount; k++) {
+                if (isDelimiter(k, lowercaseDelimiter)) {
+                    bounds[boundCount++] = partStart;
+                    bounds[boundCount++] = slashes[k] - 1;
+                    partStart = slashes[k] + 1;
+                }
+            }
+            bounds[boundCount++] = partStart;
+            bounds[boundCount++] = input.length();
+            return toStrings(dropTrailingEmptyParts(bounds, boundCount));
+        }
+
+        /**
+         * Finds the first occurrence of a letter followed by '/' at or after an index, matching the case of the
+         * letter.
+         *
+         * @param letter the letter, such as 'd' for "d/"
+         * @param from   the index to start from
+         * @return the index of the letter, or -1 if it does not occur
+         */
+        public int indexOf(char letter, int from) {
+            for (int k = findSlashFrom(from + 1); k < slashCount; k++) {
+                if (letterStarts[k] < slashes[k] && input.charAt(slashes[k] - 1) == letter) {
+                    return slashes[k] - 1;
+                }
+            }
+            return -1;
+        }
+
+        public int indexOf(char letter) {
+            return indexOf(letter, 0);
+        }
+
+        /**
+         * Retrieves the rest of the input after the given prefix, such as the name in "n/NAME".
+         *
+         * @param prefix the text the input must start with, ignoring the case of letters, ending in '/'
+         * @return the rest of the input, or null if the input does not start with the prefix
+         *         or the rest is empty or contains '/'
+         */
+        public String valueAfter(String prefix) {
+            if (!startsWithIgnoreCase(input, 0, prefix) || input.length() == prefix.length()
+                    || slashes[slashCount - 1] >= prefix.length()) {
+                return null;
+            }
+            return input.substring(prefix.length());
+        }
+
+        /**
+         * Reads the name and identifier of a command in the form "n/NAME i/IDENTIFIER", where neither
+         * contains whitespace.
+         *
+         * @return the name and identifier, or null if the input is not in this form
+         */
+        public String[] parseNameAndIdentifier() {
+            if (!startsWithIgnoreCase(input, 0, "n/") || spaceRunCount != 1 || firstSpaceStart <= 2
+                    || !startsWithIgnoreCase(input, firstSpaceEnd, "i/") || firstSpaceEnd + 2 == input.length()) {
+                return null;
+            }
+            return new String[] {input.substring(2, firstSpaceStart), input.substring(firstSpaceEnd + 2)};
+        }
+
+        private void addSlash(int slash, int letterStart, int spaceStart) {
+            if (slashCount == slashes.length) {
+                int capacity = slashes.length * 2;
+                slashes = Arrays.copyOf(slashes, capacity);
+                letterStarts = Arrays.copyOf(letterStarts, capacity);
+                spaceStarts = Arrays.copyOf(spaceStarts, capacity);
+            }
+            slashes[slashCount] = slash;
+            letterStarts[slashCount] = letterStart;
+            spaceStarts[slashCount] = spaceStart;
+            slashCount++;
+        }
+
+        private void addSpaceRun(int start) {
+            if (spaceRunCount == 0) {
+                firstSpaceStart = start;
+            }
+            spaceRunCount++;
+        }
+
+        private void extendSpaceRun(int end) {
+            if (spaceRunCount == 1) {
+                firstSpaceEnd = end;
+            }
+        }
+
+        /**
+         * Checks whether the K-th '/' ends a flag that starts a word, a single letter at the start of the input or
+         * after whitespace.
+         */
+        private boolean isWordFlag(int k) {
+            return letterStarts[k] == slashes[k] - 1 && (letterStarts[k] == 0 || spaceStarts[k] < letterStarts[k]);
+        }
+
+        private boolean isDelimiter(int k, char lowercaseDelimiter) {
+            return letterStarts[k] < slashes[k] && toLowerCase(input.charAt(slashes[k] - 1)) == lowercaseDelimiter;
+        }
+
+        /**
+         * Finds where the value starting at the given index ends: in front of the whitespace before the next flag,
+         * or at the end of the input. The value must be at least one character long and may not contain '/'.
+         *
+         * @param prefixes the letters that can start the next flag, or null if any run of letters can
+         * @return the end of the value, or -1 if there is no valid value at the index
+         */
+        private int findValueEnd(int start, String prefixes) {
+            int k = findSlashFrom(start);
+            if (k == slashCount) {
+                return input.length() > start ? input.length() : -1;
+            }
+            // The value can only end in the whitespace in front of the letters before the next '/'
+            boolean isFlag = spaceStarts[k] < letterStarts[k] && letterStarts[k] < slashes[k]
+                    && (prefixes == null || letterStarts[k] == slashes[k] - 1
+                            && prefixes.indexOf(toLowerCase(input.charAt(letterStarts[k]))) != -1);
+            int end = Math.max(spaceStarts[k], start + 1);
+            return isFlag && end < letterStarts[k] ? end : -1;
+        }
+
+        private int findSlashFrom(int start) {
+            int k = Arrays.binarySearch(slashes, 0, slashCount, start);
+            return k >= 0 ? k : -k - 1;
+        }
+
+        /**
+         * Splits a range of the input around every flag with the given letter that follows whitespace, removing
+         * that whitespace.
+         *
+         * @return the start and end of each part, with empty parts at the end dropped
+         */
+        private int[] splitOnFlag(char prefix, int from, int to) {
+            char lowercasePrefix = toLowerCase(prefix);
+            int[] bounds = new int[2 * (slashCount + 1)];
+            int boundCount = 0;
+            int partStart = from;
+            for (int k = findSlashFrom(from); k < slashCount && slashes[k] < to; k++) {
+                int letter = slashes[k] - 1;
+                if (letterStarts[k] != letter || spaceStarts[k] == letter || spaceStarts[k] < from
+                        && letter <= from || toLowerCase(input.charAt(letter)) != lowercasePrefix) {
+                    continue;
+                }
+                bounds[boundCount++] = partStart;
+                bounds[boundCount++] = Math.max(spaceStarts[k], partStart);
+                partStart = slashes[k] + 1;
+            }
+            bounds[boundCount++] = partStart;
+            bounds[boundCount++] = to;
+            return dropTrailingEmptyParts(bounds, boundCount);
+        }
+
+        private static int[] dropTrailingEmptyParts(int[] bounds, int boundCount) {
+            if (boundCount == 2) {
+                return Arrays.copyOf(bounds, 2);
+            }
+            while (boundCount > 0 && bounds[boundCount - 2] == bounds[boundCount - 1]) {
+                boundCount -= 2;
+            }
+            return Arrays.copyOf(bounds, boundCount);
+        }
+
+        private String[] toStrings(int[] bounds) {
+            String[] parts = new String[bounds.length / 2];
+            for (int part = 0; part < parts.length; part++) {
+                parts[part] = input.substring(bounds[2 * part], bounds[2 * part + 1]);
+            }
+            return parts;
+        }
+    }
+
+    public static boolean containsDigit(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            if (isDigit(input.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static boolean containsSpace(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            if (isSpace(input.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean startsWithIgnoreCase(String input, int offset, String prefix) {
+        if (offset + prefix.length() > input.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (toLowerCase(input.charAt(offset + i)) != toLowerCase(prefix.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipSpaces(String input, int index) {
+        while (index < input.length() && isSpace(input.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static char toLowerCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
@@ -29,6 +29,34 @@ public class Group {
         Group.activityManager = activityManager;
     }
 
+    /**
+     * Leaves the current group before another one is selected. The activities of the group are kept in memory
+     * for a while, so that switching back to it is quick, and the activity manager is left empty.
+     *
+     * @param activityManager The activity manager holding the activities of the current group
+     * @throws PayPalsException if the group could not be saved before leaving it
+     */
+    public static void leaveGroup(ActivityManager activityManager) throws PayPalsException {
+        if (storage == null) {
+            activityManager.clear();
+            return;
+        }
+        storage.unload(activityManager);
+    }
+
+    /**
+     * Adds up the net balance of every person over all groups.
+     *
+     * @param activityManager The activity manager holding the activities of the current group
+     * @return the balances over all groups, or over the current group alone if no storage has been set up
+     */
+    public static GroupBalances getBalancesAcrossGroups(ActivityManager activityManager) {
+        if (storage == null) {
+            return GroupBalances.of(activityManager);
+        }
+        return storage.getBalancesAcrossGroups(activityManager);
+    }
+
     /**
      * The method displays a welcome message and prompts the user to choose
      * between selecting or deleting a group.
@@ -123,7 +151,7 @@ public class Group {
         if (activityManager.checkIsNewGroup()) {
             ui.print("It is a new group.");
         } else {
-            ui.print(String.format("There are %d transactions.", activityManager.getActivityList().size()));
+            ui.print(String.format("There are %d transactions.", activityManager.getSize()));
         }
     }
 }
@@ -0,0 +1,96 @@
+package paypals.util;
+
+import paypals.ActivityManager;
+import paypals.Money;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Adds up the net balance of each person over one or more groups.
+ *
+ * <p>A person is identified by their name regardless of case, and is shown with the name as it was written
+ * in the first group that mentions them. Instances are combined with {@link #addAll(GroupBalances)}, which
+ * keeps the order of the groups, so the balances of many groups can be added up in parallel.</p>
+ */
+public class GroupBalances {
+    // Key: name (lower-cased) and Value: net balance in cents, positive if the person is owed money
+    private final HashMap<String, Long> balances = new HashMap<>();
+    // Key: name (lower-cased) and Value: name as first written
+    private final HashMap<String, String> displayNames = new HashMap<>();
+    private int groupCount;
+    private int unreadableGroupCount;
+
+    /**
+     * Takes the net balances of every person in a group.
+     *
+     * @param activityManager the activities of the group
+     * @return the balances of the group
+     */
+    public static GroupBalances of(ActivityManager activityManager) {
+        GroupBalances group = new GroupBalances();
+        group.groupCount = 1;
+        for (Map.Entry<String, Money> entry : activityManager.getNetBalances().entrySet()) {
+            String lowercaseName = entry.getKey();
+            group.balances.put(lowercaseName, entry.getValue().getCents());
+            group.displayNames.put(lowercaseName, activityManager.getDisplayName(lowercaseName));
+        }
+        return group;
+    }
+
+    /**
+     * Returns the balances of a group whose file could not be read, which only count towards
+     * the number of unreadable groups.
+     */
+    public static GroupBalances unreadable() {
+        GroupBalances group = new GroupBalances();
+        group.unreadableGroupCount = 1;
+        return group;
+    }
+
+    /**
+     * Adds the balances of groups that come after the ones already added.
+     *
+     * @param later the balances to add
+     */
+    public void addAll(GroupBalances later) {
+        for (Map.Entry<String, Long> entry : later.balances.entrySet()) {
+            balances.merge(entry.getKey(), entry.getValue(), Long::sum);
+        }
+        for (Map.Entry<String, String> entry : later.displayNames.entrySet()) {
+            displayNames.putIfAbsent(entry.getKey(), entry.getValue());
+        }
+        groupCount += later.groupCount;
+        unreadableGroupCount += later.unreadableGroupCount;
+    }
+
+    /**
+     * Returns the net balance of every person whose balances do not cancel out, ordered by name.
+     *
+     * @return a map of each person's name to their net balance, positive if the person is owed money
+     */
+    public TreeMap<String, Money> getBalances() {
+        TreeMap<String, Money> result = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, Long> entry : balances.entrySet()) {
+            if (entry.getValue() != 0) {
+                result.put(displayNames.get(entry.getKey()), Money.ofCents(entry.getValue()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of groups whose balances were added.
+     */
+    public int getGroupCount() {
+        return groupCount;
+    }
+
+    /**
+     * Returns the number of groups that were skipped because their file could not be read.
+     */
+    public int getUnreadableGroupCount() {
+        return unreadableGroupCount;
+    }
+}
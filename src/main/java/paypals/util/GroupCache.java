@@ -0,0 +1,94 @@
+package paypals.util;
+
+import paypals.ActivityManager;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the activities of recently used groups in memory, so that switching back to one of them does not
+ * read its group file again.
+ *
+ * <p>The cache is bounded both by the number of groups and by the total number of activities in them,
+ * which stands in for the memory they take up. When either limit is exceeded, the least recently used
+ * groups are evicted. Groups are only cached once everything in them has been written to disk, so an
+ * evicted group can simply be dropped and is read from its group file the next time it is loaded.</p>
+ */
+public class GroupCache {
+    private final int maxGroups;
+    private final int maxActivities;
+    // Ordered from the least to the most recently used group
+    private final LinkedHashMap<String, ActivityManager> groups = new LinkedHashMap<>(16, 0.75f, true);
+    private int activityCount;
+
+    /**
+     * Constructs an empty cache.
+     *
+     * @param maxGroups     the maximum number of groups kept
+     * @param maxActivities the maximum number of activities kept across all groups
+     */
+    public GroupCache(int maxGroups, int maxActivities) {
+        this.maxGroups = maxGroups;
+        this.maxActivities = maxActivities;
+    }
+
+    /**
+     * Caches the activities of a group as the most recently used one, replacing any earlier entry of the group.
+     * A group larger than the whole cache is not kept.
+     *
+     * @param groupName       the name of the group
+     * @param activityManager the activities of the group, which must already be saved
+     */
+    public void put(String groupName, ActivityManager activityManager) {
+        remove(groupName);
+        if (activityManager.getSize() > maxActivities) {
+            return;
+        }
+        groups.put(groupName, activityManager);
+        activityCount += activityManager.getSize();
+        evict();
+    }
+
+    /**
+     * Removes a group from the cache, such as when it is loaded again or deleted.
+     *
+     * @param groupName the name of the group
+     * @return the activities that were cached for the group, or null if it was not cached
+     */
+    public ActivityManager remove(String groupName) {
+        ActivityManager removed = groups.remove(groupName);
+        if (removed != null) {
+            activityCount -= removed.getSize();
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the activities cached for a group without removing them. This counts as a use of the group.
+     *
+     * @param groupName the name of the group
+     * @return the activities of the group, or null if the group is not cached
+     */
+    public ActivityManager get(String groupName) {
+        return groups.get(groupName);
+    }
+
+    public boolean contains(String groupName) {
+        return groups.containsKey(groupName);
+    }
+
+    public int size() {
+        return groups.size();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, ActivityManager>> leastRecent = groups.entrySet().iterator();
+        while (leastRecent.hasNext() && (groups.size() > maxGroups || activityCount > maxActivities)) {
+            ActivityManager evicted = leastRecent.next().getValue();
+            activityCount -= evicted.getSize();
+            leastRecent.remove();
+            Logging.logFine(() -> "Evicted a group of " + evicted.getSize() + " activities from the group cache");
+        }
+    }
+}
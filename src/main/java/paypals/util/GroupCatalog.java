@@ -0,0 +1,100 @@
+package paypals.util;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Indexes the groups listed in the master file, so that a group can be found by name or number
+ * in constant time however many groups there are.
+ *
+ * <p>Groups keep the order they were created in, which is the order they are numbered and listed in.
+ * Each group name is mapped to the file that holds its activities.</p>
+ */
+public class GroupCatalog {
+    private final File folder;
+    private final String fileExtension;
+    private final ArrayList<String> names = new ArrayList<>();
+    private final HashMap<String, File> groupFiles = new HashMap<>();
+
+    /**
+     * Constructs an empty catalog.
+     *
+     * @param folder        the folder that holds the group files
+     * @param fileExtension the extension of a group file, including the dot
+     */
+    public GroupCatalog(File folder, String fileExtension) {
+        this.folder = folder;
+        this.fileExtension = fileExtension;
+    }
+
+    /**
+     * Adds a group at the end of the catalog, unless it is already in it.
+     *
+     * @param name the name of the group
+     * @return true if the group was added
+     */
+    public boolean add(String name) {
+        if (groupFiles.containsKey(name)) {
+            return false;
+        }
+        names.add(name);
+        groupFiles.put(name, new File(folder, name + fileExtension));
+        return true;
+    }
+
+    /**
+     * Removes a group from the catalog. The groups after it move up by one number.
+     *
+     * @param name the name of the group
+     * @return true if the group was in the catalog
+     */
+    public boolean remove(String name) {
+        if (groupFiles.remove(name) == null) {
+            return false;
+        }
+        names.remove(name);
+        return true;
+    }
+
+    public boolean contains(String name) {
+        return groupFiles.containsKey(name);
+    }
+
+    /**
+     * Returns the name of a group by its number.
+     *
+     * @param number the position of the group, starting from 1
+     * @return the name of the group
+     * @throws IndexOutOfBoundsException if there is no group with that number
+     */
+    public String getName(int number) {
+        return names.get(number - 1);
+    }
+
+    /**
+     * Returns the file that holds the activities of a group, whether or not the group is in the catalog.
+     *
+     * @param name the name of the group
+     * @return the group file
+     */
+    public File getGroupFile(String name) {
+        File file = groupFiles.get(name);
+        return file != null ? file : new File(folder, name + fileExtension);
+    }
+
+    /**
+     * Returns the names of the groups in the order they are numbered.
+     */
+    public ArrayList<String> getNames() {
+        return names;
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public boolean isEmpty() {
+        return names.isEmpty();
+    }
+}
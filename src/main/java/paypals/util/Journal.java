@@ -0,0 +1,294 @@
+package paypals.util;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+
+/**
+ * Append-only log of the mutating commands applied to a single group.
+ *
+ * <p>Each record is written on its own line as {@code SEQUENCE<SEPARATOR>COMMAND<SEPARATOR>}, where the sequence
+ * number increases monotonically for the lifetime of the group. The trailing separator marks the end of the record,
+ * so a record cut short by an interrupted append is recognised even if the cut falls inside the command. A snapshot
+ * of the group remembers the last sequence number it covers, so records at or below that number are skipped when
+ * the group is loaded again.</p>
+ *
+ * <p>Before the first record is appended, the file is cut back to the end of its last complete record, so that
+ * a torn record is discarded rather than merged with the next one.</p>
+ */
+public class Journal {
+    private final File file;
+    private final String separator;
+    private BufferedWriter writer;
+    private long lastSequence;
+    private int recordCount;
+    // Whether the file has been checked for a torn final record since the journal was opened
+    private boolean isScanned;
+
+    /**
+     * Constructs a journal backed by the given file. The file is created lazily on the first append.
+     *
+     * @param file      the journal file of the group
+     * @param separator the delimiter placed between the sequence number and the command, and after the command
+     */
+    public Journal(File file, String separator) {
+        this.file = file;
+        this.separator = separator;
+    }
+
+    /**
+     * A complete record read back from the journal file.
+     */
+    private static class Record {
+        private final long sequence;
+        private final String command;
+
+        private Record(long sequence, String command) {
+            this.sequence = sequence;
+            this.command = command;
+        }
+    }
+
+    /**
+     * Reads the commands recorded after the given checkpoint, in the order they were appended.
+     * The sequence counter of the journal is advanced past every record found in the file.
+     *
+     * @param checkpoint the last sequence number already contained in the snapshot
+     * @return the commands that still need to be replayed on top of the snapshot
+     * @throws IOException if the journal file cannot be read
+     */
+    public synchronized ArrayList<String> readRecordsAfter(long checkpoint) throws IOException {
+        lastSequence = Math.max(lastSequence, checkpoint);
+        ArrayList<String> commands = new ArrayList<>();
+        for (Record record : scan()) {
+            if (record.sequence > checkpoint) {
+                commands.add(record.command);
+            }
+        }
+        recordCount = commands.size();
+        return commands;
+    }
+
+    /**
+     * Reads the commands recorded after the given checkpoint without changing the journal or its file. Unlike
+     * {@link #readRecordsAfter(long)}, a torn record at the end of the file is ignored rather than cut off, so the
+     * journal of a group that is not open may be read on any thread.
+     *
+     * @param checkpoint the last sequence number already contained in the snapshot
+     * @return the commands recorded after the checkpoint
+     * @throws IOException if the journal file cannot be read
+     */
+    public ArrayList<String> peekRecordsAfter(long checkpoint) throws IOException {
+        ArrayList<String> commands = new ArrayList<>();
+        if (!file.exists()) {
+            return commands;
+        }
+        ArrayList<Record> records = new ArrayList<>();
+        parseRecords(readFile(), records);
+        for (Record record : records) {
+            if (record.sequence > checkpoint) {
+                commands.add(record.command);
+            }
+        }
+        return commands;
+    }
+
+    /**
+     * Appends a single command to the journal and flushes it to disk.
+     *
+     * @param command the raw command that mutated the group
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized void append(String command) throws IOException {
+        if (!isScanned) {
+            scan();
+        }
+        if (writer == null) {
+            writer = new BufferedWriter(new FileWriter(file, true));
+        }
+        lastSequence++;
+        writer.write(lastSequence + separator + command + separator + "\n");
+        writer.flush();
+        recordCount++;
+    }
+
+    /**
+     * Drops every record up to and including the given sequence number, keeping records appended afterwards.
+     * This is called once a snapshot containing those records has been safely written.
+     *
+     * @param sequence the last sequence number covered by the new snapshot
+     * @throws IOException if the journal cannot be rewritten
+     */
+    public synchronized void truncateUpTo(long sequence) throws IOException {
+        close();
+        ArrayList<String> remaining = new ArrayList<>();
+        for (Record record : scan()) {
+            if (record.sequence > sequence) {
+                remaining.add(record.sequence + separator + record.command + separator);
+            }
+        }
+
+        if (remaining.isEmpty()) {
+            if (file.exists() && !file.delete()) {
+                throw new IOException("Journal could not be deleted: " + file.getName());
+            }
+        } else {
+            // Replaced atomically, as losing records that the snapshot does not cover would lose changes
+            Storage.writeAtomically(file, out -> {
+                BufferedWriter tempWriter = new BufferedWriter(new OutputStreamWriter(out, Charset.defaultCharset()));
+                for (String line : remaining) {
+                    tempWriter.write(line + "\n");
+                }
+                tempWriter.flush();
+            });
+        }
+        recordCount = remaining.size();
+    }
+
+    /**
+     * Moves every complete record out of the journal, appending them to another file after any records it already
+     * holds. The sequence counter is kept, so records appended afterwards are numbered after the ones moved.
+     *
+     * @param target the file to keep the records in
+     * @throws IOException if the records cannot be written to the target or removed from the journal
+     */
+    public synchronized void moveRecordsTo(File target) throws IOException {
+        close();
+        ArrayList<Record> records = scan();
+        if (!records.isEmpty()) {
+            try (FileOutputStream out = new FileOutputStream(target, true)) {
+                BufferedWriter targetWriter = new BufferedWriter(new OutputStreamWriter(out, Charset.defaultCharset()));
+                for (Record record : records) {
+                    targetWriter.write(record.sequence + separator + record.command + separator + "\n");
+                }
+                targetWriter.flush();
+                out.getFD().sync();
+            }
+        }
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Journal could not be deleted: " + file.getName());
+        }
+        recordCount = 0;
+    }
+
+    /**
+     * Reads every complete record in the file and cuts off anything after the last one, such as a record torn
+     * by an interrupted append. The sequence counter is advanced past every record found.
+     *
+     * @return the complete records, in the order they were appended
+     * @throws IOException if the file cannot be read or cut back
+     */
+    private ArrayList<Record> scan() throws IOException {
+        isScanned = true;
+        ArrayList<Record> records = new ArrayList<>();
+        if (!file.exists()) {
+            return records;
+        }
+        byte[] content = readFile();
+        int validEnd = parseRecords(content, records);
+        for (Record record : records) {
+            lastSequence = Math.max(lastSequence, record.sequence);
+        }
+
+        if (validEnd < content.length) {
+            try (FileOutputStream out = new FileOutputStream(file, true)) {
+                out.getChannel().truncate(validEnd);
+            }
+            Logging.logWarning(() -> "Discarded an incomplete record at the end of journal " + file.getName());
+        }
+        return records;
+    }
+
+    private byte[] readFile() throws IOException {
+        try (FileInputStream in = new FileInputStream(file)) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Parses the complete records at the start of the content, stopping at the first line that is not one.
+     *
+     * @param content the content of the journal file
+     * @param records the list to add the records to
+     * @return the offset just after the last complete record
+     */
+    private int parseRecords(byte[] content, ArrayList<Record> records) {
+        int validEnd = 0;
+        for (int start = 0; start < content.length; ) {
+            int end = start;
+            while (end < content.length && content[end] != '\n') {
+                end++;
+            }
+            Record record = end < content.length ? parseRecord(new String(content, start, end - start)) : null;
+            if (record == null) {
+                break;
+            }
+            records.add(record);
+            start = end + 1;
+            validEnd = start;
+        }
+        return validEnd;
+    }
+
+    /**
+     * Parses a line of the journal.
+     *
+     * @param line the line, without its line break
+     * @return the record, or null if the line is not a complete record
+     */
+    private Record parseRecord(String line) {
+        if (line.endsWith("\r")) {
+            line = line.substring(0, line.length() - 1);
+        }
+        int separatorIndex = line.indexOf(separator);
+        int commandEnd = line.length() - separator.length();
+        if (separatorIndex <= 0 || commandEnd < separatorIndex + separator.length() || !line.endsWith(separator)) {
+            return null;
+        }
+        try {
+            long sequence = Long.parseLong(line.substring(0, separatorIndex));
+            return new Record(sequence, line.substring(separatorIndex + separator.length(), commandEnd));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    public synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Deletes the journal file together with any records it contains.
+     */
+    public synchronized void delete() {
+        close();
+        file.delete();
+        recordCount = 0;
+        isScanned = true;
+    }
+
+    /**
+     * Closes the underlying writer. The journal is reopened automatically on the next append.
+     */
+    public synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            Logging.logWarning(() -> "Journal could not be closed: " + file.getName());
+        }
+        writer = null;
+    }
+}
@@ -1,20 +1,45 @@
 package paypals.util;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.function.Supplier;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.FileHandler;
 import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.logging.SimpleFormatter;
+import java.util.logging.StreamHandler;
 
+/**
+ * Writes the log of the application to ./log/PayPals.log.
+ *
+ * <p>Messages that are built from variables should be passed as a {@link Supplier}, so that the message is only
+ * built when its level is enabled. Detailed tracing, such as in the accessors of an activity, is logged at
+ * {@code Level.FINE}, which is disabled by default and then costs no more than a level check.</p>
+ */
 public class Logging {
     private static final String loggerDir = "./log";
     private static final String loggerFile = "./log/PayPals.log";
+    private static final int ASYNC_QUEUE_CAPACITY = 8192;
     private static final Logger paypalsLogger = Logger.getLogger("PayPals");
 
     public Logging() {
+        this(null);
+    }
+
+    /**
+     * Sets up the log file, optionally writing it asynchronously.
+     *
+     * <p>In asynchronous mode records are written by a background thread in batches, so logging does not wait
+     * for the disk. Records still waiting are written by {@link #flush()}.</p>
+     *
+     * @param asyncOverflowPolicy what to do with a record when the queue of the background thread is full,
+     *                            or null to write every record synchronously
+     */
+    public Logging(AsyncLogHandler.OverflowPolicy asyncOverflowPolicy) {
         try {
             File f = new File(loggerDir);
             if (!f.exists()) {
@@ -25,8 +50,16 @@ public class Logging {
                 f.createNewFile();
             }
 
-            FileHandler handler = new FileHandler(loggerFile);
-            handler.setFormatter(new SimpleFormatter());
+            Handler handler;
+            if (asyncOverflowPolicy == null) {
+                handler = new FileHandler(loggerFile);
+                handler.setFormatter(new SimpleFormatter());
+            } else {
+                // Unlike FileHandler, StreamHandler does not flush after every record
+                StreamHandler fileWriter = new StreamHandler(
+                        new BufferedOutputStream(new FileOutputStream(loggerFile)), new SimpleFormatter());
+                handler = new AsyncLogHandler(fileWriter, ASYNC_QUEUE_CAPACITY, asyncOverflowPolicy);
+            }
             paypalsLogger.addHandler(handler);
             paypalsLogger.setUseParentHandlers(false);
             disableConsoleLogging();
@@ -49,6 +82,15 @@ public class Logging {
         }
     }
 
+    /**
+     * Writes every record logged so far to the log file, waiting for the background thread in asynchronous mode.
+     */
+    public static void flush() {
+        for (Handler handler : paypalsLogger.getHandlers()) {
+            handler.flush();
+        }
+    }
+
     /**
      * Logs a message at the specified logging level.
      *
@@ -59,6 +101,25 @@ public class Logging {
         paypalsLogger.log(level, message);
     }
 
+    /**
+     * Logs a message built by the supplier, only calling the supplier if the level is enabled.
+     *
+     * @param level           the logging level (e.g., {@code Level.INFO}, {@code Level.WARNING})
+     * @param messageSupplier the supplier of the message to be logged
+     */
+    public static void log(Level level, Supplier<String> messageSupplier) {
+        paypalsLogger.log(level, messageSupplier);
+    }
+
+    /**
+     * Logs a detailed tracing message, which is disabled by default.
+     *
+     * @param messageSupplier the supplier of the tracing message to be logged
+     */
+    public static void logFine(Supplier<String> messageSupplier) {
+        paypalsLogger.log(Level.FINE, messageSupplier);
+    }
+
     /**
      * Logs an informational message.
      *
@@ -68,6 +129,15 @@ public class Logging {
         paypalsLogger.log(Level.INFO, message);
     }
 
+    /**
+     * Logs an informational message built by the supplier, only calling the supplier if INFO is enabled.
+     *
+     * @param messageSupplier the supplier of the informational message to be logged
+     */
+    public static void logInfo(Supplier<String> messageSupplier) {
+        paypalsLogger.log(Level.INFO, messageSupplier);
+    }
+
     /**
      * Logs a warning message.
      *
@@ -76,4 +146,13 @@ public class Logging {
     public static void logWarning(String message) {
         paypalsLogger.log(Level.WARNING, message);
     }
+
+    /**
+     * Logs a warning message built by the supplier, only calling the supplier if WARNING is enabled.
+     *
+     * @param messageSupplier the supplier of the warning message to be logged
+     */
+    public static void logWarning(Supplier<String> messageSupplier) {
+        paypalsLogger.log(Level.WARNING, messageSupplier);
+    }
 }
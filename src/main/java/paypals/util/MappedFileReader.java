@@ -0,0 +1,136 @@
+package paypals.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+
+/**
+ * Reads a group file into memory in one go and splits it into records, without a {@link java.util.Scanner}.
+ *
+ * <p>Files of at least {@value #MAPPING_THRESHOLD} bytes can be memory-mapped, so their pages are read straight
+ * from the page cache. Smaller files are read into a buffer on the heap, which is cheaper to set up. A mapping
+ * cannot be released on demand and stays until it is garbage collected, and on some platforms, such as Windows,
+ * a mapped file cannot be replaced. Files that are about to be rewritten, such as the file of the group being
+ * loaded, must therefore be read without mapping.
+ * Lines and fields are found by scanning the bytes, and only the fields themselves are decoded into strings.</p>
+ */
+public class MappedFileReader {
+    static final int MAPPING_THRESHOLD = 1 << 20;
+
+    private final ByteBuffer buffer;
+    private final Charset charset;
+    private final ArrayList<String> fields = new ArrayList<>();
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Reads the file, which must be in an ASCII-compatible charset such as the platform default.
+     *
+     * @param file       the file to read
+     * @param charset    the charset the file was written in
+     * @param isMappable whether a large file may be memory-mapped, which is only safe if it will not be replaced
+     *                   soon afterwards
+     * @throws IOException if the file cannot be read
+     */
+    public MappedFileReader(File file, Charset charset, boolean isMappable) throws IOException {
+        this.buffer = read(file, isMappable);
+        this.charset = charset;
+    }
+
+    /**
+     * Reads the whole content of a file, memory-mapping it if it is large and mapping is allowed.
+     *
+     * @param file       the file to read
+     * @param isMappable whether a large file may be memory-mapped, which is only safe if it will not be replaced
+     *                   soon afterwards
+     * @return the content of the file, positioned at its first byte
+     * @throws IOException if the file cannot be read or is larger than 2 GB
+     */
+    public static ByteBuffer read(File file, boolean isMappable) throws IOException {
+        try (FileChannel channel = new FileInputStream(file).getChannel()) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File is too large: " + file.getName());
+            }
+            if (isMappable && size >= MAPPING_THRESHOLD) {
+                // The mapping stays valid after the channel is closed
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Keep reading until the buffer is full or the file ends
+            }
+            return buffer.flip();
+        }
+    }
+
+    /**
+     * Reads the next line and splits it into fields, in the same way as {@code line.split(separator)}:
+     * trailing empty fields are dropped, and an empty line gives a single empty field.
+     * Lines may end with "\n", "\r\n" or "\r".
+     *
+     * @param separator the ASCII character between fields
+     * @return the fields of the line, or null if there are no more lines
+     */
+    public String[] readRecord(char separator) {
+        if (!buffer.hasRemaining()) {
+            return null;
+        }
+        fields.clear();
+        int fieldStart = buffer.position();
+        int limit = buffer.limit();
+        int i = fieldStart;
+        while (i < limit) {
+            byte b = buffer.get(i);
+            if (b == '\n' || b == '\r') {
+                break;
+            }
+            if (b == separator) {
+                fields.add(decode(fieldStart, i));
+                fieldStart = i + 1;
+            }
+            i++;
+        }
+        boolean isEmptyLine = i == buffer.position();
+        fields.add(decode(fieldStart, i));
+        skipLineEnd(i);
+
+        if (isEmptyLine) {
+            return new String[] {""};
+        }
+        int size = fields.size();
+        while (size > 0 && fields.get(size - 1).isEmpty()) {
+            size--;
+        }
+        return fields.subList(0, size).toArray(new String[0]);
+    }
+
+    private void skipLineEnd(int lineEnd) {
+        int next = lineEnd;
+        if (next < buffer.limit()) {
+            byte terminator = buffer.get(next++);
+            if (terminator == '\r' && next < buffer.limit() && buffer.get(next) == '\n') {
+                next++;
+            }
+        }
+        buffer.position(next);
+    }
+
+    private String decode(int start, int end) {
+        int length = end - start;
+        if (length == 0) {
+            return "";
+        }
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, length, charset);
+        }
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, charset);
+    }
+}
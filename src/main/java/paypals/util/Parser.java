@@ -2,11 +2,13 @@ package paypals.util;
 
 import paypals.commands.AddCommand;
 import paypals.commands.AddEqualCommand;
+import paypals.commands.BalancesCommand;
 import paypals.commands.ChangeCommand;
 import paypals.commands.DeleteCommand;
 import paypals.commands.ListCommand;
 import paypals.commands.EditCommand;
 import paypals.commands.HelpCommand;
+import paypals.commands.ImportCommand;
 import paypals.commands.PaidCommand;
 import paypals.commands.SplitCommand;
 import paypals.commands.UnpaidCommand;
@@ -38,45 +40,49 @@ public class Parser {
      * @throws PayPalsException if the input is invalid or improperly formatted
      */
     public Command decodeCommand(String input) throws PayPalsException {
-        String[] tokens = input.split(" ", 2);
-        if (tokens.length != 2 && tokens.length != 1) {
-            throw new PayPalsException(ExceptionMessage.INVALID_COMMAND);
-        }
+        int spaceIndex = input.indexOf(' ');
 
         // Obtain command and convert it to its lowercase equivalent (to maintain case-insensitivity)
-        String command = tokens[0].trim();
-        command = command.toLowerCase();
+        String command = spaceIndex == -1 ? input : input.substring(0, spaceIndex);
+        command = command.trim().toLowerCase();
 
         // Obtain the rest of the input to be passed to Command class
         String parameters = "";
-        if (tokens.length == 2) {
-            parameters = tokens[1].trim();
+        if (spaceIndex != -1) {
+            parameters = input.substring(spaceIndex + 1).trim();
         }
 
+        // Tokenize the parameters once, for whichever command reads flags from them
+        FlagTokenizer.Tokens tokens = FlagTokenizer.tokenize(parameters);
+
         try {
             switch (command) {
             case "add":
-                return new AddCommand(parameters);
+                return new AddCommand(tokens);
             case "addequal":
-                return new AddEqualCommand(parameters);
+                return new AddEqualCommand(tokens);
             case "delete":
-                return new DeleteCommand(parameters);
+                return new DeleteCommand(tokens);
             case "list":
-                return new ListCommand(parameters);
+                return new ListCommand(tokens);
             case "split":
                 return new SplitCommand(parameters);
             case "paid":
-                return new PaidCommand(parameters);
+                return new PaidCommand(tokens);
             case "exit":
                 return new ExitCommand(parameters);
             case "help":
                 return new HelpCommand(parameters);
             case "edit":
-                return new EditCommand(parameters);
+                return new EditCommand(tokens);
             case "unpaid":
-                return new UnpaidCommand(parameters);
+                return new UnpaidCommand(tokens);
             case "change":
                 return new ChangeCommand(parameters);
+            case "import":
+                return new ImportCommand(parameters);
+            case "balances":
+                return new BalancesCommand(parameters);
             default:
                 throw new PayPalsException(ExceptionMessage.INVALID_COMMAND);
             }
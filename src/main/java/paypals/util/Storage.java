@@ -2,9 +2,8 @@ package paypals.util;
 
 import paypals.Activity;
 import paypals.ActivityManager;
-import paypals.commands.AddCommand;
-import paypals.commands.Command;
-import paypals.commands.PaidCommand;
+import paypals.Money;
+import paypals.Person;
 import paypals.exception.ExceptionMessage;
 import paypals.exception.PayPalsException;
 
@@ -12,25 +11,120 @@ import paypals.exception.PayPalsException;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.FileWriter;
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 
 public class Storage {
     private static final String SEPARATOR = String.valueOf(Character.toChars(31));
     private static final String MASTER_FILE_STRING = "master-savefile.txt";
     private static final String FILE_EXTENSION = ".txt";
     private static final String STORAGE_FOLDER_PATH = "./data";
+    private static final String JOURNAL_EXTENSION = ".journal";
+    private static final String UNREPLAYED_EXTENSION = ".unreplayed";
+    private static final String CHECKPOINT_HEADER = "checkpoint";
+    private static final String TEMP_EXTENSION = ".tmp";
+    private static final int COMPACTION_THRESHOLD = 200;
+    private static final int CACHED_GROUP_LIMIT = 8;
+    private static final int CACHED_ACTIVITY_LIMIT = 200_000;
 
     private final File masterFile;
     private File activityFile;
+    private String currentGroupName;
     private Scanner scanner;
 
-    private final ArrayList<String> groupNames;
+    private final GroupCatalog groups;
+    private final GroupCache groupCache = new GroupCache(CACHED_GROUP_LIMIT, CACHED_ACTIVITY_LIMIT);
+    // Journals of the cached groups, which carry on numbering their records when the group is loaded again
+    private final HashMap<String, Journal> cachedJournals = new HashMap<>();
+
+    private final boolean isJournaled;
+    private final boolean isBinary;
+    private final boolean isWriteBehind;
+    private Journal journal;
+    private ExecutorService compactor;
+    private Future<?> pendingCompaction;
+
+    // The stored form of each activity when it was last captured, reused for as long as the activity is not dirty
+    private final HashMap<Activity, String> cachedLines = new HashMap<>();
+    private final HashMap<Activity, BinaryGroupFile.Record> cachedRecords = new HashMap<>();
+    // The manager and version of the activities last saved to the group file
+    private ActivityManager savedManager;
+    private long savedVersion;
+    // The manager and version of the current group known to be on disk, in the group file or the journal
+    private ActivityManager writtenManager;
+    private long writtenVersion;
+
+    // The newest snapshot waiting for the persister thread, guarded by writeLock
+    private final Object writeLock = new Object();
+    private File pendingTarget;
+    private ContentWriter pendingSnapshot;
+    private ExecutorService persister;
+    private Thread persisterShutdownHook;
+    private volatile Future<?> lastWrite;
+    private volatile boolean hasWriteFailed;
 
     public Storage() throws PayPalsException {
+        this(false);
+    }
+
+    public Storage(boolean isJournaled) throws PayPalsException {
+        this(isJournaled, false);
+    }
+
+    /**
+     * Constructs the storage, optionally in journaled mode and with binary group files.
+     *
+     * <p>In journaled mode every mutating command is appended to a per-group journal instead of rewriting the
+     * whole group file, and the journal is periodically compacted into the group file in the background.</p>
+     *
+     * <p>Group files are written in the format chosen here, but are read in whichever format they were
+     * last written in, so an existing group is converted the next time it is saved.</p>
+     *
+     * @param isJournaled whether mutations should be journaled instead of saved in full
+     * @param isBinary    whether group files should be written in the binary format of {@link BinaryGroupFile}
+     * @throws PayPalsException if the storage directory or master file cannot be created
+     */
+    public Storage(boolean isJournaled, boolean isBinary) throws PayPalsException {
+        this(isJournaled, isBinary, false);
+    }
+
+    /**
+     * Constructs the storage, optionally in journaled mode, with binary group files and with write-behind saving.
+     *
+     * <p>With write-behind saving, the group file is written on a background thread after a mutating command,
+     * so the command returns without waiting for the disk. Changes made while a write is in progress are
+     * coalesced into a single write of the newest state. Pending writes are finished before another group is
+     * loaded, when the storage is closed and when the JVM shuts down. Journaled mode does not need this,
+     * since it only appends the command to the journal.</p>
+     *
+     * @param isJournaled   whether mutations should be journaled instead of saved in full
+     * @param isBinary      whether group files should be written in the binary format of {@link BinaryGroupFile}
+     * @param isWriteBehind whether group files should be saved in the background after a mutating command
+     * @throws PayPalsException if the storage directory or master file cannot be created
+     */
+    public Storage(boolean isJournaled, boolean isBinary, boolean isWriteBehind) throws PayPalsException {
+        this.isJournaled = isJournaled;
+        this.isBinary = isBinary;
+        this.isWriteBehind = isWriteBehind && !isJournaled;
         File dir = new File(STORAGE_FOLDER_PATH);
         if (!dir.exists()) {
             if (!dir.mkdir()) {
@@ -55,9 +149,9 @@ public class Storage {
             throw new PayPalsException(ExceptionMessage.STORAGE_FILE_NOT_FOUND);
         }
 
-        groupNames = new ArrayList<>();
+        groups = new GroupCatalog(dir, FILE_EXTENSION);
         while (scanner.hasNextLine()) {
-            groupNames.add(scanner.nextLine());
+            groups.add(scanner.nextLine());
         }
         scanner.close();
     }
@@ -65,23 +159,383 @@ public class Storage {
     /**
      * Saves the list of activities from the provided ActivityManager into a storage file.
      * Each activity is converted to a storage-friendly string format and written to the file.
+     * The file is replaced atomically, so a crash during the save leaves the previous version intact.
+     * Nothing is written if the activities have not changed since they were last saved, and only the activities
+     * that have changed are converted again.
      *
      * @param activityManager the ActivityManager instance containing the list of activities to save
      * @throws PayPalsException if an I/O error occurs while writing to the storage file,
      *                          with the message {@link ExceptionMessage#SAVE_NOT_WRITTEN}
      */
     public void save(ActivityManager activityManager) throws PayPalsException {
-        ArrayList<Activity> activities = activityManager.getActivityList();
-        try {
-            FileWriter fw = new FileWriter(this.activityFile);
-            for (Activity activity : activities) {
-                String data = activity.toStorageString(SEPARATOR);
-                fw.write(data + "\n");
+        // A write still waiting in the background would otherwise overwrite this one with older content
+        flushWrites();
+        long version = activityManager.getVersion();
+        if (activityManager == savedManager && version == savedVersion) {
+            return;
+        }
+        List<Activity> activities = activityManager.getActivityList();
+        if (isJournaled && journal != null) {
+            awaitCompaction();
+            long checkpoint = journal.getLastSequence();
+            try {
+                writeAtomically(this.activityFile, captureSnapshot(checkpoint, activities));
+                journal.truncateUpTo(checkpoint);
+            } catch (IOException e) {
+                throw new PayPalsException(ExceptionMessage.SAVE_NOT_WRITTEN);
+            }
+        } else {
+            try {
+                writeAtomically(this.activityFile, captureSnapshot(0, activities));
+            } catch (IOException e) {
+                throw new PayPalsException(ExceptionMessage.SAVE_NOT_WRITTEN);
+            }
+        }
+        savedManager = activityManager;
+        savedVersion = version;
+        markWritten(activityManager);
+    }
+
+    /**
+     * Persists the effect of a mutating command that has just been executed successfully.
+     *
+     * <p>In journaled mode only the command itself is appended to the group's journal, so the cost does not
+     * depend on the size of the group. Once enough records have accumulated, a snapshot is taken and written
+     * in the background. Otherwise, the whole group is saved as in {@link #save(ActivityManager)}, on the
+     * persister thread if write-behind saving is enabled.</p>
+     *
+     * @param command         the full command entered by the user
+     * @param activityManager the ActivityManager holding the state after the command
+     * @throws PayPalsException if the journal record or the group file cannot be written
+     */
+    public void persist(String command, ActivityManager activityManager) throws PayPalsException {
+        if (!isJournaled) {
+            if (hasWriteFailed) {
+                retryFailedWrite(activityManager);
+            } else if (isWriteBehind) {
+                saveBehind(activityManager);
+            } else {
+                save(activityManager);
             }
-            fw.close();
+            return;
+        }
+        try {
+            journal.append(command);
         } catch (IOException e) {
             throw new PayPalsException(ExceptionMessage.SAVE_NOT_WRITTEN);
         }
+        markWritten(activityManager);
+        if (journal.getRecordCount() >= COMPACTION_THRESHOLD && isCompactionIdle()) {
+            scheduleCompaction(activityManager);
+        }
+    }
+
+    /**
+     * Takes a snapshot of the current activities and hands it to the persister thread. If the previous snapshot
+     * has not been written yet, it is replaced by this one, so that rapid changes lead to a single write.
+     *
+     * @param activityManager the ActivityManager to snapshot
+     */
+    private void saveBehind(ActivityManager activityManager) {
+        long version = activityManager.getVersion();
+        if (activityManager == savedManager && version == savedVersion) {
+            return;
+        }
+        ContentWriter snapshot = captureSnapshot(0, activityManager.getActivityList());
+        savedManager = activityManager;
+        savedVersion = version;
+
+        if (persister == null) {
+            persister = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "PayPals-persister");
+                thread.setDaemon(true);
+                return thread;
+            });
+            persisterShutdownHook = new Thread(this::flushWrites, "PayPals-persister-shutdown");
+            Runtime.getRuntime().addShutdownHook(persisterShutdownHook);
+        }
+        synchronized (writeLock) {
+            boolean isWriteQueued = pendingSnapshot != null;
+            pendingTarget = this.activityFile;
+            pendingSnapshot = snapshot;
+            if (isWriteQueued) {
+                // The queued write has not started yet, and will pick up this snapshot instead
+                return;
+            }
+        }
+        lastWrite = persister.submit(this::writePendingSnapshot);
+    }
+
+    private void writePendingSnapshot() {
+        File target;
+        ContentWriter snapshot;
+        synchronized (writeLock) {
+            target = pendingTarget;
+            snapshot = pendingSnapshot;
+            pendingTarget = null;
+            pendingSnapshot = null;
+        }
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            writeAtomically(target, snapshot);
+        } catch (IOException e) {
+            hasWriteFailed = true;
+            Logging.logWarning(() -> "Background save of " + target.getName() + " failed");
+        }
+    }
+
+    /**
+     * Saves a group again on this thread if its last background write failed, so that a persistent failure is
+     * reported instead of being retried only on the next change. The failure is remembered until a save succeeds.
+     *
+     * @param activityManager the ActivityManager holding the activities whose write failed
+     * @throws PayPalsException if the group file still cannot be written
+     */
+    private void retryFailedWrite(ActivityManager activityManager) throws PayPalsException {
+        if (!hasWriteFailed) {
+            return;
+        }
+        savedManager = null;
+        save(activityManager);
+        hasWriteFailed = false;
+    }
+
+    private void markWritten(ActivityManager activityManager) {
+        writtenManager = activityManager;
+        writtenVersion = activityManager.getVersion();
+    }
+
+    /**
+     * Checks whether everything in the activities of the current group has been written to disk. Snapshots handed
+     * to the persister thread count once they have been written without a failure.
+     */
+    private boolean isWritten(ActivityManager activityManager) {
+        long version = activityManager.getVersion();
+        if (activityManager == writtenManager && version == writtenVersion) {
+            return true;
+        }
+        return !hasWriteFailed && activityManager == savedManager && version == savedVersion;
+    }
+
+    /**
+     * Blocks until every snapshot handed to the persister thread has been written.
+     */
+    private void flushWrites() {
+        Future<?> write = lastWrite;
+        if (write == null) {
+            return;
+        }
+        try {
+            write.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Logging.logWarning("Background save did not complete");
+        }
+    }
+
+    /**
+     * Takes a snapshot of the current activities and writes it to the group file on the compaction thread.
+     * The snapshot is captured on the calling thread so that later mutations cannot leak into it.
+     *
+     * @param activityManager the ActivityManager to snapshot
+     */
+    private void scheduleCompaction(ActivityManager activityManager) {
+        final File snapshotFile = this.activityFile;
+        final Journal snapshotJournal = this.journal;
+        final long checkpoint = snapshotJournal.getLastSequence();
+        final ContentWriter snapshot = captureSnapshot(checkpoint, activityManager.getActivityList());
+
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "PayPals-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        pendingCompaction = compactor.submit(() -> {
+            try {
+                writeAtomically(snapshotFile, snapshot);
+                snapshotJournal.truncateUpTo(checkpoint);
+                Logging.logInfo(() -> "Journal compacted up to record " + checkpoint);
+            } catch (IOException e) {
+                Logging.logWarning("Journal compaction failed, records are kept in the journal");
+            }
+        });
+    }
+
+    private boolean isCompactionIdle() {
+        return pendingCompaction == null || pendingCompaction.isDone();
+    }
+
+    /**
+     * Blocks until the compaction in progress, if any, has finished writing.
+     */
+    private void awaitCompaction() {
+        if (pendingCompaction == null) {
+            return;
+        }
+        try {
+            pendingCompaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Logging.logWarning("Journal compaction did not complete");
+        }
+        pendingCompaction = null;
+    }
+
+    /**
+     * Converts each activity into its stored form, reusing the form cached from the last capture
+     * unless the activity is dirty. The cache is left holding only the given activities.
+     *
+     * @param activities the activities to convert
+     * @param cache      the stored form of each activity as of the last capture
+     * @param converter  the conversion of a single activity
+     * @return the stored form of each activity, in the same order
+     */
+    private static <T> ArrayList<T> toStoredForms(List<Activity> activities, HashMap<Activity, T> cache,
+            Function<Activity, T> converter) {
+        ArrayList<T> storedForms = new ArrayList<>(activities.size());
+        HashMap<Activity, T> currentForms = new HashMap<>();
+        for (Activity activity : activities) {
+            T storedForm = activity.isDirty() ? null : cache.get(activity);
+            if (storedForm == null) {
+                storedForm = converter.apply(activity);
+                activity.markClean();
+            }
+            storedForms.add(storedForm);
+            currentForms.put(activity, storedForm);
+        }
+        cache.clear();
+        cache.putAll(currentForms);
+        return storedForms;
+    }
+
+    /**
+     * Writes content that was captured earlier, such as a snapshot of a group, to a file.
+     */
+    interface ContentWriter {
+        void writeTo(FileOutputStream out) throws IOException;
+    }
+
+    /**
+     * Copies the activities of a group in the format that group files are written in,
+     * so that the copy can be written later, on any thread.
+     *
+     * @param checkpoint the last journal sequence number contained in the snapshot, or 0 if there is none
+     * @param activities the activities of the group
+     * @return the captured snapshot
+     */
+    private ContentWriter captureSnapshot(long checkpoint, List<Activity> activities) {
+        if (isBinary) {
+            ArrayList<BinaryGroupFile.Record> records = toStoredForms(activities, cachedRecords,
+                    BinaryGroupFile::toRecord);
+            return out -> BinaryGroupFile.write(out.getChannel(), checkpoint, records);
+        }
+        ArrayList<String> lines = toStoredForms(activities, cachedLines,
+                activity -> activity.toStorageString(SEPARATOR));
+        return out -> writeTextSnapshot(out, checkpoint, lines);
+    }
+
+    /**
+     * Writes the lines of a text group file, headed by the journal checkpoint they cover.
+     * The header is left out when the checkpoint is 0, since journal records are numbered from 1.
+     */
+    private void writeTextSnapshot(FileOutputStream out, long checkpoint, ArrayList<String> lines)
+            throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, Charset.defaultCharset()));
+        if (checkpoint > 0) {
+            writer.write(SEPARATOR + CHECKPOINT_HEADER + SEPARATOR + checkpoint + "\n");
+        }
+        for (String line : lines) {
+            writer.write(line + "\n");
+        }
+        writer.flush();
+    }
+
+    /**
+     * Replaces the content of a file without ever leaving it partially written.
+     *
+     * <p>The content is streamed into a temporary file next to the target and forced to disk before the temporary
+     * file is moved over the target with {@link StandardCopyOption#ATOMIC_MOVE}. If the file system cannot move
+     * atomically, an ordinary move is used instead. Finally the directory is forced to disk where the platform
+     * allows it, so that the rename itself survives a crash.</p>
+     *
+     * @param target  the file to replace
+     * @param content the writer of the new content
+     * @throws IOException if the content cannot be written or moved into place
+     */
+    static void writeAtomically(File target, ContentWriter content) throws IOException {
+        File temp = new File(target.getPath() + TEMP_EXTENSION);
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            content.writeTo(out);
+            out.getFD().sync();
+        }
+        try {
+            Path source = temp.toPath();
+            Path destination = target.toPath();
+            try {
+                Files.move(source, destination, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(source, destination, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (InvalidPathException e) {
+            // The platform cannot express the name as a Path, but java.io can still rename it
+            if (!temp.renameTo(target)) {
+                throw new IOException("File could not be moved into place: " + target.getName());
+            }
+        }
+        syncDirectory(target.getAbsoluteFile().getParentFile());
+    }
+
+    private static void syncDirectory(File directory) {
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException | InvalidPathException | UnsupportedOperationException e) {
+            // Some platforms, such as Windows, cannot open a directory to force it
+        }
+    }
+
+    /**
+     * Finishes any background save or compaction and releases the journal of the current group.
+     * If the last background save failed, the group is saved again before everything is released.
+     * This should be called before the application exits.
+     *
+     * @throws PayPalsException if the group file still cannot be written,
+     *                          with the message {@link ExceptionMessage#SAVE_NOT_WRITTEN}
+     */
+    public void close() throws PayPalsException {
+        flushWrites();
+        awaitCompaction();
+        try {
+            if (savedManager != null) {
+                retryFailedWrite(savedManager);
+            }
+        } finally {
+            release();
+        }
+    }
+
+    private void release() {
+        if (journal != null) {
+            journal.close();
+        }
+        if (compactor != null) {
+            compactor.shutdown();
+            compactor = null;
+        }
+        if (persister != null) {
+            persister.shutdown();
+            persister = null;
+            try {
+                Runtime.getRuntime().removeShutdownHook(persisterShutdownHook);
+            } catch (IllegalStateException e) {
+                // The JVM is already shutting down, and the hook has nothing left to write
+            }
+        }
     }
 
     /**
@@ -101,13 +555,15 @@ public class Storage {
 
         try {
             int testNumber = Integer.parseInt(fileName);
-            if (testNumber <= 0 || testNumber > groupNames.size()) {
+            if (testNumber <= 0 || testNumber > groups.size()) {
                 throw new PayPalsException(ExceptionMessage.INVALID_GROUP_NUMBER);
             }
             return true;
         } catch (NumberFormatException e) {
-            String testFileName = fileName + ".txt";
-            String testFilePath = STORAGE_FOLDER_PATH + "/" + testFileName;
+            if (groups.contains(fileName)) {
+                return true;
+            }
+            File testFile = groups.getGroupFile(fileName);
             try {
                 boolean isAllDigit = true;
                 for (int i = 0; i < fileName.length(); i++){
@@ -123,20 +579,19 @@ public class Storage {
                 if (isAllDigit && !fileName.equals("-")) {
                     throw new PayPalsException(ExceptionMessage.INVALID_FILENAME);
                 }
-                File testFile = new File(testFilePath);
                 testFile.createNewFile();
             } catch (IOException error) {
                 throw new PayPalsException(ExceptionMessage.INVALID_FILENAME);
             }
 
-            // Check if file exists with correct filename. Sometimes invalid names are truncated.
-            File folder = new File(STORAGE_FOLDER_PATH);
-            File[] listOfFiles = folder.listFiles();
-
-            for (File file : listOfFiles) {
-                if (file.getName().equals(testFileName)) {
+            // Check if file exists with correct filename. Sometimes invalid names are truncated,
+            // which shows in the name that the file system resolves the file to.
+            try {
+                if (testFile.exists() && testFile.getCanonicalFile().getName().equals(testFile.getName())) {
                     return true;
                 }
+            } catch (IOException error) {
+                // The file system cannot resolve the name, so it cannot be used either
             }
             throw new PayPalsException(ExceptionMessage.FILENAME_DOES_NOT_EXIST);
         }
@@ -150,40 +605,85 @@ public class Storage {
      * @param activityManager   the ActivityManager instance where the loaded data will be stored
      * @throws PayPalsException if:
      *                          - the group number cannot be parsed as an integer and is not a valid group name
-     *                          - an I/O error occurs while appending to the master file or loading the group file
+     *                          - an I/O error occurs while writing the master file or loading the group file
      *                            with the messages {@link ExceptionMessage#SAVE_NOT_WRITTEN} or
      *                            {@link ExceptionMessage#STORAGE_FILE_NOT_FOUND}
      */
     public void load(String groupNumberOrName, ActivityManager activityManager) throws PayPalsException {
         String groupName;
         try {
-            if (groupNames.contains(groupNumberOrName)) {
+            if (groups.contains(groupNumberOrName)) {
                 groupName = groupNumberOrName;
             } else {
                 int groupNumber = Integer.parseInt(groupNumberOrName);
-                groupName = groupNames.get(groupNumber - 1);
+                groupName = groups.getName(groupNumber);
             }
             activityManager.setGroupDetails(groupName, false);
         } catch (NumberFormatException e) {
             // Create a new group with the group name
             groupName = groupNumberOrName;
-            groupNames.add(groupName);
+            ArrayList<String> names = new ArrayList<>(groups.getNames());
+            names.add(groupName);
             try {
-                FileWriter fw = new FileWriter(this.masterFile, true);
-                fw.append(groupName + "\n");
-                fw.close();
+                rewriteMasterFile(names);
             } catch (IOException ee) {
                 throw new PayPalsException(ExceptionMessage.SAVE_NOT_WRITTEN);
             }
+            // Only once the master file lists the group, so that the catalog never has a group the file lacks
+            groups.add(groupName);
             activityManager.setGroupDetails(groupName, true);
         }
         loadFromGroupName(groupName, activityManager);
     }
 
+    /**
+     * Leaves the current group, such as before switching to another one. Once everything in the group has been
+     * written, its activities are moved out of the ActivityManager into the group cache, so that loading the
+     * group again does not read its group file. A group with changes that could not be written is not cached,
+     * so that loading it again reads what is on disk. The ActivityManager is left empty.
+     *
+     * @param activityManager the ActivityManager holding the activities of the current group
+     * @throws PayPalsException if the last background save failed and the group still cannot be written, with
+     *                          the message {@link ExceptionMessage#SAVE_NOT_WRITTEN}. The group is then kept.
+     */
+    public void unload(ActivityManager activityManager) throws PayPalsException {
+        flushWrites();
+        awaitCompaction();
+        retryFailedWrite(activityManager);
+        if (currentGroupName == null) {
+            activityManager.clear();
+            return;
+        }
+        if (isWritten(activityManager)) {
+            ActivityManager cached = new ActivityManager();
+            activityManager.moveActivitiesTo(cached);
+            groupCache.put(currentGroupName, cached);
+            cachedJournals.put(currentGroupName, journal);
+            cachedJournals.keySet().removeIf(groupName -> !groupCache.contains(groupName));
+        } else {
+            Logging.logWarning(() -> "Not caching " + currentGroupName + ", as some changes were not written");
+            activityManager.clear();
+        }
+        currentGroupName = null;
+    }
+
     private void loadFromGroupName(String groupName, ActivityManager activityManager) throws PayPalsException {
+        // Finish writing the previous group before switching to another one
+        flushWrites();
+        awaitCompaction();
+        if (journal != null) {
+            journal.close();
+        }
+        Journal cachedJournal = cachedJournals.remove(groupName);
+        this.journal = new Journal(getJournalFile(groupName), SEPARATOR);
+        savedManager = null;
+        writtenManager = null;
+        cachedLines.clear();
+        cachedRecords.clear();
+
         // Reads the specific group file selected
-        String activityFilePath = STORAGE_FOLDER_PATH + "/" + groupName + FILE_EXTENSION;
-        this.activityFile = new File(activityFilePath);
+        this.activityFile = groups.getGroupFile(groupName);
+        this.currentGroupName = groupName;
         try {
             activityFile.createNewFile();
         } catch (IOException e) {
@@ -191,117 +691,354 @@ public class Storage {
         }
         assert activityFile.exists() && activityFile.isFile() : "The activity file exists and should be a file";
 
+        ActivityManager cached = groupCache.remove(groupName);
+        if (cached != null && activityManager.getSize() == 0) {
+            // The cached activities are exactly what was last written for this group, journal included, and the
+            // journal continues after its last record, which may already be folded into the group file
+            cached.moveActivitiesTo(activityManager);
+            if (cachedJournal != null) {
+                this.journal = cachedJournal;
+            }
+            markWritten(activityManager);
+            Logging.logInfo("Data has been loaded from the group cache");
+            return;
+        }
+
+        GroupFileContent content = readGroupFile(this.activityFile, groupName, activityManager, false);
+        replayJournal(content, activityManager);
+        markWritten(activityManager);
+        Logging.logInfo("Data has been loaded from save file");
+
+        if (content.skippedCount > 0) {
+            throw new PayPalsException(ExceptionMessage.LOAD_ERROR);
+        }
+    }
+
+    /**
+     * The checkpoint of a group file and the number of activities in it, or journal records after it, that could
+     * not be read.
+     */
+    private static class GroupFileContent {
+        private long checkpoint;
+        private int skippedCount;
+    }
+
+    /**
+     * Reads the activities in a group file, in either format, into an ActivityManager. Corrupted activities
+     * are skipped and counted. This does not depend on the current group, so it may run on any thread.
+     *
+     * @param file            the group file
+     * @param groupName       the name of the group, for the log
+     * @param activityManager the ActivityManager to add the activities to
+     * @param isReadOnly      whether the file will only be read, so a large file may be memory-mapped. A mapping
+     *                        lasts until it is garbage collected and stops the file from being replaced on Windows,
+     *                        so a file that is about to be saved again must not be mapped.
+     * @return the checkpoint of the file and the number of activities skipped
+     * @throws PayPalsException if the file cannot be read
+     */
+    private GroupFileContent readGroupFile(File file, String groupName, ActivityManager activityManager,
+            boolean isReadOnly) throws PayPalsException {
+        GroupFileContent content = new GroupFileContent();
+        boolean isBinaryFile;
         try {
-            this.scanner = new Scanner(this.activityFile);
-        } catch (FileNotFoundException e) {
+            isBinaryFile = BinaryGroupFile.isBinary(file);
+        } catch (IOException e) {
             throw new PayPalsException(ExceptionMessage.STORAGE_FILE_NOT_FOUND);
         }
 
-        while (scanner.hasNextLine()) {
-            String data = scanner.nextLine();
+        if (isBinaryFile) {
+            BinaryGroupFile.Snapshot snapshot;
             try {
-                processLine(data, activityManager);
-            } catch (PayPalsException e) {
+                snapshot = BinaryGroupFile.read(file, isReadOnly);
+            } catch (IOException e) {
                 throw new PayPalsException(ExceptionMessage.LOAD_ERROR);
             }
-            if (activityManager.getSize() >= 1000) {
-                throw new PayPalsException(ExceptionMessage.MORE_THAN_1000_ACTIVITIES);
+            content.checkpoint = snapshot.getCheckpoint();
+            for (BinaryGroupFile.Record record : snapshot.getRecords()) {
+                addStoredActivity(toFields(record), groupName, activityManager, content);
+            }
+            if (!snapshot.isComplete()) {
+                content.skippedCount++;
+            }
+        } else {
+            MappedFileReader reader;
+            try {
+                reader = new MappedFileReader(file, Charset.defaultCharset(), isReadOnly);
+            } catch (IOException e) {
+                throw new PayPalsException(ExceptionMessage.STORAGE_FILE_NOT_FOUND);
+            }
+            String[] parts;
+            while ((parts = reader.readRecord(SEPARATOR.charAt(0))) != null) {
+                if (isCheckpointHeader(parts)) {
+                    content.checkpoint = parseCheckpoint(parts);
+                    continue;
+                }
+                addStoredActivity(parts, groupName, activityManager, content);
             }
         }
-        scanner.close();
-        Logging.logInfo("Data has been loaded from save file");
+        return content;
+    }
+
+    private boolean isCheckpointHeader(String[] parts) {
+        return parts.length >= 2 && parts[0].isEmpty() && parts[1].equals(CHECKPOINT_HEADER);
+    }
+
+    private long parseCheckpoint(String[] header) throws PayPalsException {
+        try {
+            return Long.parseLong(header[header.length - 1]);
+        } catch (NumberFormatException e) {
+            throw new PayPalsException(ExceptionMessage.LOAD_ERROR);
+        }
     }
 
     /**
-     * Processes a single line of input, constructs the necessary command input,
-     * and executes the commands.
+     * Re-executes the journaled commands that are not yet part of the group file.
+     * When journaling is disabled, the replayed state is folded back into the group file straight away
+     * so that the journal does not linger.
+     *
+     * <p>Journaled commands identify activities by their position in the list, so they are only replayed on top of
+     * every activity they were recorded against. If an activity of the group file was skipped, or a command cannot
+     * be replayed, the records are kept aside instead and counted in the content as not read.</p>
      *
-     * @param data the line of data read from the file
-     * @param activityManager the activity manager to operate on
-     * @throws PayPalsException if the data format is invalid
+     * @param content         the checkpoint of the group file and the number of activities skipped in it
+     * @param activityManager the activity manager to replay the commands on
+     * @throws PayPalsException if the journal cannot be read or the group file cannot be rewritten
      */
-    private void processLine(String data, ActivityManager activityManager)
-            throws PayPalsException {
-        ArrayList<String> hasPaidNames = new ArrayList<>();
-        String[] parts = data.split(SEPARATOR);
-        if (parts.length < 4) {
-            throw new PayPalsException(ExceptionMessage.LOAD_ERROR);
+    private void replayJournal(GroupFileContent content, ActivityManager activityManager) throws PayPalsException {
+        ArrayList<String> commands;
+        try {
+            commands = journal.readRecordsAfter(content.checkpoint);
+        } catch (IOException e) {
+            throw new PayPalsException(ExceptionMessage.STORAGE_FILE_NOT_FOUND);
+        }
+        if (commands.isEmpty()) {
+            return;
+        }
+
+        int failedCount = content.skippedCount > 0 ? commands.size() : applyCommands(commands, activityManager);
+        if (failedCount > 0) {
+            keepUnreplayedRecords(activityManager);
+            content.skippedCount += failedCount;
+            return;
+        }
+
+        if (!isJournaled) {
+            try {
+                writeAtomically(this.activityFile,
+                        captureSnapshot(journal.getLastSequence(), activityManager.getActivityList()));
+            } catch (IOException e) {
+                throw new PayPalsException(ExceptionMessage.SAVE_NOT_WRITTEN);
+            }
+            journal.delete();
         }
-        assert ((parts.length - 1) % 3) == 0 : "Parts should contain full data of each Person";
+    }
 
-        // Build the command input string and collect names with hasPaid true
-        String input = buildInput(parts, hasPaidNames);
+    /**
+     * Moves the journal records of the current group into a file of their own, where they are kept but never
+     * replayed, then writes the group file as loaded so far, covering the records moved. Records appended to the
+     * journal afterwards are numbered after them.
+     *
+     * @param activityManager the activity manager holding the activities of the current group
+     * @throws PayPalsException if the records cannot be moved or the group file cannot be rewritten
+     */
+    private void keepUnreplayedRecords(ActivityManager activityManager) throws PayPalsException {
+        File unreplayedFile = getUnreplayedFile(currentGroupName);
+        long checkpoint = journal.getLastSequence();
+        try {
+            journal.moveRecordsTo(unreplayedFile);
+            writeAtomically(this.activityFile, captureSnapshot(checkpoint, activityManager.getActivityList()));
+        } catch (IOException e) {
+            throw new PayPalsException(ExceptionMessage.SAVE_NOT_WRITTEN);
+        }
+        Logging.logWarning(() -> "Journal records that could not be replayed are kept in " + unreplayedFile.getName());
+    }
 
-        // Execute the add command
-        executeAddCommand(input, activityManager);
+    /**
+     * Re-executes commands on an activity manager, skipping those that fail.
+     *
+     * @return the number of commands that could not be replayed
+     */
+    private static int applyCommands(ArrayList<String> commands, ActivityManager activityManager) {
+        Parser parser = new Parser();
+        int failedCount = 0;
+        for (String command : commands) {
+            try {
+                parser.decodeCommand(command).execute(activityManager, false);
+            } catch (PayPalsException e) {
+                Logging.logWarning(() -> "Skipping journal record that could not be replayed: " + command);
+                failedCount++;
+            }
+        }
+        return failedCount;
+    }
 
-        // Execute additional commands for persons who have paid
-        executePaidCommands(hasPaidNames, activityManager);
+    /**
+     * Adds up the net balance of every person over all groups.
+     *
+     * <p>The current group and the groups in the group cache are taken from memory. Every other group is read
+     * from its group file and journal without becoming the current group, with the groups spread over the
+     * threads of the common {@link java.util.concurrent.ForkJoinPool}, so that many groups are read at once.
+     * A group that cannot be read is counted and skipped.</p>
+     *
+     * @param activityManager the ActivityManager holding the activities of the current group
+     * @return the balances over all groups
+     */
+    public GroupBalances getBalancesAcrossGroups(ActivityManager activityManager) {
+        HashMap<String, GroupBalances> inMemory = new HashMap<>();
+        ArrayList<String> groupNames = new ArrayList<>(groups.getNames());
+        for (String groupName : groupNames) {
+            ActivityManager cached = groupName.equals(currentGroupName) ? activityManager : groupCache.get(groupName);
+            if (cached != null) {
+                inMemory.put(groupName, GroupBalances.of(cached));
+            }
+        }
+        return groupNames.parallelStream()
+                .map(groupName -> inMemory.containsKey(groupName)
+                        ? inMemory.get(groupName)
+                        : readGroupBalances(groupName))
+                .collect(GroupBalances::new, GroupBalances::addAll, GroupBalances::addAll);
     }
 
     /**
-     * Builds the command input string from the parsed parts and populates a list
-     * of names for which the "hasPaid" flag is true.
+     * Reads a group that is not in memory and takes its balances, without changing its files. This may run on
+     * any thread.
+     */
+    private GroupBalances readGroupBalances(String groupName) {
+        ActivityManager group = new ActivityManager();
+        File file = groups.getGroupFile(groupName);
+        try {
+            GroupFileContent content = new GroupFileContent();
+            if (file.exists()) {
+                content = readGroupFile(file, groupName, group, true);
+            }
+            // As when loading, the journal only applies on top of every activity it was recorded against
+            if (content.skippedCount == 0) {
+                Journal groupJournal = new Journal(getJournalFile(groupName), SEPARATOR);
+                applyCommands(groupJournal.peekRecordsAfter(content.checkpoint), group);
+            }
+        } catch (PayPalsException | IOException e) {
+            Logging.logWarning(() -> "Skipping group that could not be read: " + groupName);
+            return GroupBalances.unreadable();
+        }
+        return GroupBalances.of(group);
+    }
+
+    private File getJournalFile(String groupName) {
+        return new File(STORAGE_FOLDER_PATH + "/" + groupName + JOURNAL_EXTENSION);
+    }
+
+    private File getUnreplayedFile(String groupName) {
+        return new File(STORAGE_FOLDER_PATH + "/" + groupName + JOURNAL_EXTENSION + UNREPLAYED_EXTENSION);
+    }
+
+    /**
+     * Adds the activity described by the fields of a stored activity, or skips and counts it if they are not valid.
+     */
+    private void addStoredActivity(String[] parts, String groupName, ActivityManager activityManager,
+            GroupFileContent content) {
+        if (isValidRecord(parts)) {
+            activityManager.addActivity(parseActivity(parts));
+        } else {
+            Logging.logWarning(() -> "Skipping corrupted activity in save file of " + groupName);
+            content.skippedCount++;
+        }
+    }
+
+    /**
+     * Checks that the fields of a stored activity describe a valid activity, applying the same rules
+     * as {@link paypals.commands.AddCommand} does to user input.
+     *
+     * <p>The layout of the fields is DESCRIPTION, PAYER, PAYER_AMOUNT, PAYER_HASPAID, followed by
+     * FRIEND, AMOUNT, HASPAID for every friend. The payer's amount and status are derived from the friends
+     * and are therefore not checked.</p>
      *
-     * @param parts the array of strings obtained by splitting the line
-     * @param hasPaidNames a list to be populated with names that have paid
-     * @return the combined command input string
-     * @throws PayPalsException if the parts array does not contain the expected data
+     * @param parts the fields of the line, split by the separator
+     * @return true if an activity can be built from the fields
      */
-    private String buildInput(String[] parts, ArrayList<String> hasPaidNames) throws PayPalsException {
-        String description = "d/" + parts[0] + " ";
-        String payer = "n/" + parts[1] + " ";
-        String input = description + payer;
+    private boolean isValidRecord(String[] parts) {
+        if (parts.length < 7 || (parts.length - 4) % 3 != 0) {
+            return false;
+        }
+        String description = parts[0].trim();
+        String payer = parts[1].trim();
+        if (description.isEmpty() || description.contains("/") || !isValidName(payer)) {
+            return false;
+        }
+
+        HashSet<String> names = new HashSet<>();
+        names.add(payer.toLowerCase());
         for (int i = 4; i < parts.length; i += 3) {
-            if (i + 2 >= parts.length) {
-                throw new PayPalsException(ExceptionMessage.LOAD_ERROR);
+            String friend = parts[i].trim();
+            if (!isValidName(friend) || !names.add(friend.toLowerCase())) {
+                return false;
             }
-            String owedName = "f/" + parts[i] + " ";
-            String owedAmount = "a/" + parts[i + 1] + " ";
-            boolean hasPaid = Boolean.parseBoolean(parts[i + 2]);
-            if (hasPaid) {
-                hasPaidNames.add(parts[i]);
-            } else if (!parts[i + 2].equals("false")) {
-                throw new PayPalsException(ExceptionMessage.LOAD_ERROR);
+            if (!isValidStoredAmount(parts[i + 1].trim())) {
+                return false;
+            }
+            if (!parts[i + 2].equals("true") && !parts[i + 2].equals("false")) {
+                return false;
             }
-            input += owedName + owedAmount;
         }
-        return input;
+        return true;
+    }
+
+    private boolean isValidName(String name) {
+        return !name.isEmpty() && !name.contains("/") && !FlagTokenizer.containsDigit(name);
+    }
+
+    private boolean isValidStoredAmount(String amountString) {
+        if (!Money.isValidFormat(amountString)) {
+            return false;
+        }
+        Money amount;
+        try {
+            amount = Money.parse(amountString);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        return amount.isPositive() && amount.compareTo(Money.LARGE_AMOUNT_LIMIT) <= 0;
     }
 
     /**
-     * Creates and executes the add command based on the input string.
+     * Builds an activity directly from the fields of a line that has passed {@link #isValidRecord(String[])}.
+     * The payer's amount is the negative of the total owed by the friends.
      *
-     * @param input the command input string
-     * @param activityManager the activity manager to operate on
+     * @param parts the fields of the line, split by the separator
+     * @return the activity described by the fields
      */
-    private void executeAddCommand(String input, ActivityManager activityManager) {
-        try {
-            Command c = new AddCommand(input);
-            c.execute(activityManager, false);
-        } catch (PayPalsException e) {
-            System.out.println(e.getMessage());
+    private Activity parseActivity(String[] parts) {
+        ArrayList<Person> friends = new ArrayList<>((parts.length - 4) / 3);
+        long totalOwedInCents = 0;
+        for (int i = 4; i < parts.length; i += 3) {
+            Money amount = Money.parse(parts[i + 1]);
+            friends.add(new Person(parts[i].trim(), amount, parts[i + 2].equals("true")));
+            totalOwedInCents += amount.getCents();
         }
+        Person payer = new Person(parts[1].trim(), Money.ofCents(-totalOwedInCents), false);
+        return new Activity(parts[0].trim(), payer, friends);
     }
 
     /**
-     * Creates and executes paid commands for each name in the list.
+     * Lays out a record read from a binary group file in the fields of a line of a text group file, so that
+     * activities in either format are checked and built by the same code.
      *
-     * @param hasPaidNames the list of names for which the hasPaid flag is true
-     * @param activityManager the activity manager to operate on
+     * @param record the fields of the stored activity
+     * @return the fields of the equivalent line
      */
-    private void executePaidCommands(ArrayList<String> hasPaidNames, ActivityManager activityManager) {
-        try {
-            for (String name : hasPaidNames) {
-                Activity activity = activityManager.getActivity(activityManager.getSize()-1);
-                int activityIdentifier = activityManager.getIdentifierFromUnpaidList(activity,name);
-                String paidInput = "n/" + name + " i/" + activityIdentifier;
-                Command paidCommand = new PaidCommand(paidInput);
-                paidCommand.execute(activityManager, false);
-            }
-        } catch (PayPalsException e) {
-            System.out.println(e.getMessage());
+    private static String[] toFields(BinaryGroupFile.Record record) {
+        String[] friends = record.getFriends();
+        String[] parts = new String[4 + 3 * friends.length];
+        parts[0] = record.getDescription();
+        parts[1] = record.getPayer();
+        // The payer's amount and status are derived from the friends, so they are left blank
+        parts[2] = "";
+        parts[3] = "false";
+        for (int i = 0; i < friends.length; i++) {
+            parts[4 + 3 * i] = friends[i];
+            parts[5 + 3 * i] = Money.ofCents(record.getCents()[i]).toString();
+            parts[6 + 3 * i] = String.valueOf(record.getHasPaid()[i]);
         }
+        return parts;
     }
 
     /**
@@ -325,7 +1062,7 @@ public class Storage {
     }
 
     public ArrayList<String> getGroupNames() {
-        return groupNames;
+        return groups.getNames();
     }
 
     /**
@@ -339,44 +1076,47 @@ public class Storage {
      */
     public void delete(String groupNumberOrName, ActivityManager activityManager) throws PayPalsException {
         String groupName;
-        if (groupNames.contains(groupNumberOrName)) {
+        if (groups.contains(groupNumberOrName)) {
             groupName = groupNumberOrName;
         } else {
             int groupNumber = Integer.parseInt(groupNumberOrName);
-            groupName = groupNames.get(groupNumber - 1);
+            groupName = groups.getName(groupNumber);
+        }
+        flushWrites();
+        awaitCompaction();
+        if (journal != null) {
+            journal.close();
         }
         deleteFile(groupName);
-        groupNames.remove(groupName);
+        groups.remove(groupName);
+        groupCache.remove(groupName);
+        cachedJournals.remove(groupName);
+        if (groupName.equals(currentGroupName)) {
+            currentGroupName = null;
+        }
         try {
-            removeFromMasterFile(groupName);
+            rewriteMasterFile(groups.getNames());
         } catch (IOException ee) {
             throw new PayPalsException(ExceptionMessage.SAVE_NOT_WRITTEN);
         }
     }
 
     /**
-     * Removes a group's entry from the master file by reading the entire file,
-     * filtering out the line containing the group name, and writing the filtered content back.
+     * Rewrites the master file with the given group names, one per line.
+     * The master file is replaced atomically, so a crash never loses the other groups.
      *
-     * @param groupName The name of the group to be removed from the master file
-     * @throws IOException If an error occurs during file reading or writing operations
+     * @param groupNames the names of the groups in the order they are numbered
+     * @throws IOException If an error occurs while writing the master file
      */
-    private void removeFromMasterFile(String groupName) throws IOException {
-        BufferedReader reader = new BufferedReader(new FileReader(this.masterFile));
-        StringBuilder content = new StringBuilder();
-        String line;
-        while ((line = reader.readLine()) != null) {
-            // Skip the line containing the group name
-            if (!line.contains(groupName)) {
-                content.append(line).append(System.lineSeparator());
+    private void rewriteMasterFile(List<String> groupNames) throws IOException {
+        ArrayList<String> names = new ArrayList<>(groupNames);
+        writeAtomically(this.masterFile, out -> {
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, Charset.defaultCharset()));
+            for (String name : names) {
+                writer.write(name + System.lineSeparator());
             }
-        }
-        reader.close();
-
-        // Write the filtered content back to the master file
-        FileWriter fw = new FileWriter(this.masterFile, false); // false means overwrite
-        fw.write(content.toString());
-        fw.close();
+            writer.flush();
+        });
     }
 
     /**
@@ -385,9 +1125,9 @@ public class Storage {
      * @param groupName The name of the group whose file should be deleted
      */
     private void deleteFile(String groupName) {
-        String groupFilePath = STORAGE_FOLDER_PATH + "/" + groupName + FILE_EXTENSION;
-        File file = new File(groupFilePath);
-        file.delete();
+        groups.getGroupFile(groupName).delete();
+        getJournalFile(groupName).delete();
+        getUnreplayedFile(groupName).delete();
     }
 
     /**
@@ -401,7 +1141,7 @@ public class Storage {
      *                          or if the number is out of range
      */
     public boolean containsFile(String groupNumberOrName) throws PayPalsException {
-        if (groupNames.contains(groupNumberOrName)) {
+        if (groups.contains(groupNumberOrName)) {
             return true;
         }
         int groupNumber;
@@ -410,7 +1150,7 @@ public class Storage {
         } catch (NumberFormatException e) {
             throw new PayPalsException(ExceptionMessage.FILENAME_DOES_NOT_EXIST);
         }
-        if (groupNumber <= 0 || groupNumber > groupNames.size()) {
+        if (groupNumber <= 0 || groupNumber > groups.size()) {
             throw new PayPalsException(ExceptionMessage.INVALID_GROUP_NUMBER);
         }
         return true;
@@ -0,0 +1,74 @@
+package paypals;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ActivityTableTest {
+
+    private static Activity[] addActivities(ActivityTable table, int count) {
+        Activity[] activities = new Activity[count];
+        for (int i = 0; i < count; i++) {
+            activities[i] = new Activity("Activity " + i, new Person("Ann", Money.ZERO, false), new ArrayList<>());
+            activities[i].setId(i + 1);
+            table.add(activities[i]);
+        }
+        return activities;
+    }
+
+    @Test
+    public void remove_middleActivities_laterActivitiesMoveUpAndKeepIds() {
+        ActivityTable table = new ActivityTable();
+        Activity[] activities = addActivities(table, 6);
+
+        assertSame(activities[1], table.remove(1));
+        assertSame(activities[3], table.remove(2));
+
+        assertEquals(4, table.size());
+        assertSame(activities[2], table.get(1));
+        assertSame(activities[4], table.get(2));
+        assertSame(activities[5], table.getById(6));
+        assertNull(table.getById(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.get(4));
+    }
+
+    @Test
+    public void remove_mostActivities_emptySlotsCompactedAway() {
+        ActivityTable table = new ActivityTable();
+        Activity[] activities = addActivities(table, 40);
+        for (int i = 0; i < 30; i++) {
+            table.remove(0);
+        }
+        table.remove(5);
+
+        List<Activity> remaining = table.getActivities();
+        assertEquals(9, remaining.size());
+        assertSame(activities[30], remaining.get(0));
+        assertSame(activities[36], remaining.get(5));
+        assertSame(activities[39], table.getById(40));
+    }
+
+    @Test
+    public void getActivities_afterDelete_iterationSkipsEmptySlots() {
+        ActivityTable table = new ActivityTable();
+        Activity[] activities = addActivities(table, 3);
+        List<Activity> view = table.getActivities();
+
+        table.remove(1);
+
+        assertEquals(2, view.size());
+        Iterator<Activity> iterator = view.iterator();
+        assertSame(activities[0], iterator.next());
+        assertSame(activities[2], iterator.next());
+        assertFalse(iterator.hasNext());
+        assertSame(activities[2], view.get(1));
+    }
+}
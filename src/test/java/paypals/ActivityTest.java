@@ -0,0 +1,93 @@
+package paypals;
+
+import org.junit.jupiter.api.Test;
+import paypals.commands.AddCommand;
+import paypals.exception.PayPalsException;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ActivityTest {
+
+    @Test
+    public void markAsPaid_friendFromActivity_columnsAndLedgerUpdated() throws PayPalsException {
+        ActivityManager activityManager = new ActivityManager();
+        new AddCommand("d/Lunch n/Ann f/Tom a/5 f/Sam a/7").execute(activityManager, false);
+        Activity activity = activityManager.getActivity(0);
+        Person tom = activity.getFriend("tom");
+
+        activity.getFriend("TOM").markAsPaid();
+
+        assertTrue(tom.hasPaid());
+        assertTrue(activity.isFriendPaid(activity.indexOfFriend(tom.getPersonId())));
+        assertEquals(1, activity.getPaidFriendCount());
+        assertEquals(0, activityManager.getNetBalance("tom").getCents());
+        assertEquals(700, activityManager.getNetBalance("ann").getCents());
+    }
+
+    @Test
+    public void setOwed_ownFriends_valuesKept() {
+        ArrayList<Person> friends = new ArrayList<>();
+        friends.add(new Person("Tom", Money.parse("5"), true));
+        friends.add(new Person("Sam", Money.parse("7"), false));
+        Activity activity = new Activity("Lunch", new Person("Ann", Money.ZERO, false), friends);
+
+        activity.setOwed(activity.getOwed());
+
+        assertEquals(2, activity.getFriendCount());
+        assertEquals(500, activity.getFriend("Tom").getMoney().getCents());
+        assertTrue(activity.getFriend("Tom").hasPaid());
+        assertFalse(activity.getFriend("Sam").hasPaid());
+        assertFalse(activity.isActivityFullyPaid("Ann", false));
+    }
+
+    @Test
+    public void getOutstanding_paymentsAndEdits_countersKeptUpToDate() throws PayPalsException {
+        ActivityManager activityManager = new ActivityManager();
+        new AddCommand("d/Lunch n/Ann f/Tom a/5 f/Sam a/7").execute(activityManager, false);
+        Activity activity = activityManager.getActivity(0);
+
+        activity.getFriend("Tom").markAsPaid();
+        activityManager.editActivityOwedAmount(0, "Sam", Money.parse("9"));
+        activityManager.editActivityOwedAmount(0, "Tom", Money.parse("4"));
+
+        assertEquals(1, activity.getUnpaidFriendCount());
+        assertEquals(900, activity.getOutstanding().getCents());
+        assertFalse(activity.isActivityFullyPaid("Ann", true));
+
+        activity.getFriend("Sam").markAsPaid();
+        activity.getFriend("Tom").markAsUnpaid();
+
+        assertEquals(1, activity.getUnpaidFriendCount());
+        assertEquals(400, activity.getOutstanding().getCents());
+        assertEquals(400, activityManager.getNetBalance("ann").getCents());
+
+        activity.getFriend("Tom").markAsPaid();
+
+        assertEquals(0, activity.getUnpaidFriendCount());
+        assertTrue(activity.isActivityFullyPaid("Ann", false));
+        assertEquals("Lunch", activityManager.getActivities("ANN", true).get(0).getDescription());
+    }
+
+    @Test
+    public void editFriend_throughFriendFromActivity_ledgerAndIndexesUpdated() throws PayPalsException {
+        ActivityManager activityManager = new ActivityManager();
+        new AddCommand("d/Lunch n/Ann f/Tom a/5 f/Sam a/7").execute(activityManager, false);
+        Activity activity = activityManager.getActivity(0);
+
+        activity.getFriend("Tom").editAmount(Money.parse("9"));
+        activity.getFriend("Tom").markAsPaid();
+        activity.getFriend("Sam").editName("Bob");
+
+        assertEquals(0, activityManager.getNetBalance("tom").getCents());
+        assertEquals(-700, activityManager.getNetBalance("bob").getCents());
+        assertEquals(0, activityManager.getNetBalance("sam").getCents());
+        assertEquals(700, activityManager.getNetBalance("ann").getCents());
+        assertEquals("Bob", activity.getFriend("bob").getName());
+        assertEquals(1, activityManager.getActivities("BOB").size());
+        assertTrue(activityManager.getActivities("Sam").isEmpty());
+    }
+}
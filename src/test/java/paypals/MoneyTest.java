@@ -0,0 +1,46 @@
+package paypals;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MoneyTest {
+
+    @Test
+    public void parse_validAmounts_exactCents() {
+        assertEquals(1250, Money.parse("12.5").getCents());
+        assertEquals(-305, Money.parse("-3.05").getCents());
+        assertEquals(1000000, Money.parse(" 10000 ").getCents());
+    }
+
+    @Test
+    public void parse_notANumber_exceptionThrown() {
+        assertThrows(NumberFormatException.class, () -> Money.parse("abc"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("99999999999999999999"));
+    }
+
+    @Test
+    public void toString_variousAmounts_twoDecimalPlaces() {
+        assertEquals("12.50", Money.parse("12.5").toString());
+        assertEquals("-0.05", Money.ofCents(-5).toString());
+        assertEquals("0.00", Money.ZERO.toString());
+    }
+
+    @Test
+    public void plus_manySmallAmounts_noDrift() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < 1000; i++) {
+            total = total.plus(Money.parse("0.1"));
+        }
+        assertEquals(Money.parse("100"), total);
+        assertTrue(total.isPositive());
+    }
+
+    @Test
+    public void divide_unevenAmount_roundsHalfToEven() {
+        assertEquals(Money.parse("3.33"), Money.parse("10").divide(3));
+        assertEquals(Money.parse("0.12"), Money.parse("1").divide(8));
+    }
+}
@@ -0,0 +1,80 @@
+package paypals;
+
+import org.junit.jupiter.api.Test;
+import paypals.commands.AddCommand;
+import paypals.commands.DeleteCommand;
+import paypals.exception.PayPalsException;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class PersonActivityIndexTest {
+
+    private static Activity activityWithId(int id) {
+        Activity activity = new Activity("Activity " + id, new Person("Ann", Money.ZERO, false), new ArrayList<>());
+        activity.setId(id);
+        return activity;
+    }
+
+    @Test
+    public void get_mixedSettledActivities_kthOfEachKindFound() {
+        PersonActivityIndex index = new PersonActivityIndex();
+        Activity[] activities = new Activity[10];
+        for (int i = 0; i < activities.length; i++) {
+            activities[i] = activityWithId(i + 1);
+            index.add(activities[i], i % 3 == 0);
+        }
+
+        assertEquals(4, index.getSettledCount());
+        assertEquals(6, index.getUnsettledCount());
+        assertSame(activities[6], index.get(true, 2));
+        assertSame(activities[4], index.get(false, 2));
+        assertNull(index.get(true, 4));
+        assertEquals(3, index.rankOf(activities[5], false));
+        assertEquals(-1, index.rankOf(activities[4], true));
+    }
+
+    @Test
+    public void add_removedAndOutOfOrderActivities_orderByIdKept() {
+        PersonActivityIndex index = new PersonActivityIndex();
+        Activity[] activities = new Activity[12];
+        for (int i = 0; i < activities.length; i++) {
+            activities[i] = activityWithId(2 * i + 2);
+        }
+        for (int i = 1; i < activities.length; i++) {
+            index.add(activities[i], false);
+        }
+        for (int i = 1; i < 8; i++) {
+            index.remove(activities[i]);
+        }
+        index.add(activities[0], false);
+        index.add(activities[3], true);
+        index.setSettled(activities[9], true);
+
+        assertEquals(6, index.size());
+        assertEquals(4, index.getUnsettledCount());
+        assertSame(activities[0], index.get(false, 0));
+        assertSame(activities[8], index.get(false, 1));
+        assertSame(activities[9], index.get(true, 1));
+        assertEquals(3, index.rankOf(activities[11], false));
+    }
+
+    @Test
+    public void getUnpaidActivity_friendPaidAndActivityDeleted_kthUnpaidFound() throws PayPalsException {
+        ActivityManager activityManager = new ActivityManager();
+        for (int i = 1; i <= 5; i++) {
+            new AddCommand("d/Meal" + i + " n/Ann f/Tom a/" + i).execute(activityManager, false);
+        }
+        activityManager.getActivity(1).getFriend("Tom").markAsPaid();
+        new DeleteCommand("i/1").execute(activityManager, false);
+
+        assertEquals("Meal3", activityManager.getUnpaidActivity("tom", 0).getDescription());
+        assertEquals("Meal2", activityManager.getPaidActivity("TOM", 0).getDescription());
+        assertEquals("Meal5", activityManager.getUnpaidActivity("ann", 2).getDescription());
+        assertNull(activityManager.getUnpaidActivity("tom", 3));
+        assertEquals(2, activityManager.getIdentifierFromUnpaidList(activityManager.getActivity(2), "Tom"));
+    }
+}
@@ -0,0 +1,52 @@
+package paypals;
+
+import org.junit.jupiter.api.Test;
+import paypals.commands.AddCommand;
+import paypals.commands.EditCommand;
+import paypals.exception.PayPalsException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class PersonRegistryTest {
+
+    @Test
+    public void register_namesDifferingInCase_sameId() {
+        PersonRegistry registry = new PersonRegistry();
+        int id = registry.register("Alice");
+
+        assertEquals(id, registry.register("ALICE"));
+        assertEquals(id, registry.find("alice"));
+        assertNotEquals(id, registry.register("Bob"));
+        assertEquals(-1, registry.find("Carol"));
+        assertEquals("alice", registry.getKey(id));
+        assertEquals(2, registry.size());
+    }
+
+    @Test
+    public void addActivity_sameNameInManyActivities_nameStoredOnce() throws PayPalsException {
+        ActivityManager activityManager = new ActivityManager();
+        new AddCommand("d/Lunch n/Ann f/Tom a/5").execute(activityManager, false);
+        new AddCommand("d/Dinner n/Tom f/" + new String("Ann") + " a/7").execute(activityManager, false);
+
+        Person payer = activityManager.getActivity(0).getPayer();
+        Person friend = activityManager.getActivity(1).getFriend("ann");
+        assertEquals(payer.getPersonId(), friend.getPersonId());
+        assertSame(payer.getName(), friend.getName());
+    }
+
+    @Test
+    public void editOwedName_friendRenamed_foundByNewNameOnly() throws PayPalsException {
+        ActivityManager activityManager = new ActivityManager();
+        new AddCommand("d/Lunch n/Ann f/Tom a/5").execute(activityManager, false);
+        new EditCommand("i/1 f/Sam o/tom").execute(activityManager, false);
+
+        Activity activity = activityManager.getActivity(0);
+        assertNull(activity.getFriend("Tom"));
+        assertEquals("Sam", activity.getFriend("SAM").getName());
+        assertEquals(-500, activityManager.getNetBalance("sam").getCents());
+        assertEquals(0, activityManager.getNetBalance("tom").getCents());
+    }
+}
@@ -0,0 +1,96 @@
+package paypals;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SettlementEngineTest {
+
+    @Test
+    public void settle_noBalances_noTransactions() {
+        assertTrue(new SettlementEngine().settle(new HashMap<>()).isEmpty());
+    }
+
+    @Test
+    public void settle_largestDebtorPaysLargestCreditor_structuredTransactions() {
+        LinkedHashMap<String, Money> balances = new LinkedHashMap<>();
+        balances.put("John", Money.parse("50"));
+        balances.put("Jane", Money.parse("-30"));
+        balances.put("Eric", Money.parse("-30"));
+        balances.put("Alice", Money.parse("10"));
+
+        ArrayList<Transaction> transactions = new SettlementEngine().settle(balances);
+
+        assertEquals(3, transactions.size());
+        assertEquals("Jane", transactions.get(0).getDebtor());
+        assertEquals("John", transactions.get(0).getCreditor());
+        assertEquals(Money.parse("30"), transactions.get(0).getAmount());
+        assertEquals("Eric pays John $20.00", transactions.get(1).toString());
+        assertEquals("Eric pays Alice $10.00", transactions.get(2).toString());
+    }
+
+    @Test
+    public void settle_thousandsOfPeople_everyBalanceSettled() {
+        LinkedHashMap<String, Money> balances = new LinkedHashMap<>();
+        long totalInCents = 0;
+        for (int i = 1; i < 5000; i++) {
+            long cents = (i % 2 == 0 ? 1 : -1) * (i % 97 * 100 + 25);
+            balances.put("Person" + i, Money.ofCents(cents));
+            totalInCents += cents;
+        }
+        balances.put("Person0", Money.ofCents(-totalInCents));
+
+        ArrayList<Transaction> transactions = new SettlementEngine().settle(balances);
+
+        assertTrue(transactions.size() < balances.size());
+        HashMap<String, Long> remaining = new HashMap<>();
+        for (Map.Entry<String, Money> entry : balances.entrySet()) {
+            remaining.put(entry.getKey(), entry.getValue().getCents());
+        }
+        for (Transaction transaction : transactions) {
+            long cents = transaction.getAmount().getCents();
+            assertTrue(cents > 0);
+            remaining.merge(transaction.getDebtor(), cents, Long::sum);
+            remaining.merge(transaction.getCreditor(), -cents, Long::sum);
+        }
+        for (long cents : remaining.values()) {
+            assertEquals(0L, cents);
+        }
+    }
+
+    @Test
+    public void settleOptimally_greedyNotMinimal_fewestTransactions() {
+        LinkedHashMap<String, Money> balances = new LinkedHashMap<>();
+        balances.put("A", Money.parse("7"));
+        balances.put("B", Money.parse("5"));
+        balances.put("C", Money.parse("-5"));
+        balances.put("D", Money.parse("-4"));
+        balances.put("E", Money.parse("-3"));
+
+        SettlementEngine engine = new SettlementEngine();
+        assertEquals(4, engine.settle(balances).size());
+
+        ArrayList<Transaction> transactions = engine.settleOptimally(balances, 1000);
+        assertEquals(3, transactions.size());
+        assertEquals("D pays A $4.00", transactions.get(0).toString());
+        assertEquals("E pays A $3.00", transactions.get(1).toString());
+        assertEquals("C pays B $5.00", transactions.get(2).toString());
+    }
+
+    @Test
+    public void settleOptimally_tooManyPeople_returnsNull() {
+        LinkedHashMap<String, Money> balances = new LinkedHashMap<>();
+        for (int i = 0; i <= SettlementEngine.MAX_OPTIMAL_PEOPLE; i++) {
+            balances.put("Person" + i, Money.ofCents(i % 2 == 0 ? 100 : -100));
+        }
+        balances.put("Extra", Money.parse("-1"));
+        assertNull(new SettlementEngine().settleOptimally(balances, 1000));
+    }
+}
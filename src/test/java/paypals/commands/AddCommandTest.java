@@ -2,6 +2,7 @@ package paypals.commands;
 
 import org.junit.jupiter.api.Test;
 import paypals.Activity;
+import paypals.Money;
 import paypals.PayPalsTest;
 import paypals.Person;
 import paypals.exception.ExceptionMessage;
@@ -38,9 +39,9 @@ public class AddCommandTest extends PayPalsTest {
 
         for (Person person : friends) {
             if (person.getName().equals("Frank")) {
-                assertEquals(30, person.getAmount());
+                assertEquals(Money.parse("30"), person.getMoney());
             } else if (person.getName().equals("Gina")) {
-                assertEquals(20, person.getAmount());
+                assertEquals(Money.parse("20"), person.getMoney());
             }
         }
     }
@@ -61,9 +62,9 @@ public class AddCommandTest extends PayPalsTest {
 
         for (Person person : friends) {
             if (person.getName().equals("Frank")) {
-                assertEquals(30, person.getAmount());
+                assertEquals(Money.parse("30"), person.getMoney());
             } else if (person.getName().equals("Gina")) {
-                assertEquals(20, person.getAmount());
+                assertEquals(Money.parse("20"), person.getMoney());
             }
         }
     }
@@ -234,7 +235,7 @@ public class AddCommandTest extends PayPalsTest {
 
         Activity activity = activityManager.getActivity(0);
         Person friend = activity.getFriend("Mike");
-        assertEquals(7.5, friend.getAmount(), 0.001);
+        assertEquals(Money.parse("7.5"), friend.getMoney());
     }
 
     @Test
@@ -245,7 +246,7 @@ public class AddCommandTest extends PayPalsTest {
 
         Activity activity = activityManager.getActivity(0);
         Person friend = activity.getFriend("Mike");
-        assertEquals(7.55, friend.getAmount(), 0.001);
+        assertEquals(Money.parse("7.55"), friend.getMoney());
     }
 
     @Test
@@ -267,7 +268,7 @@ public class AddCommandTest extends PayPalsTest {
         cmd.execute(activityManager, false);
 
         Person friend = activityManager.getActivity(0).getFriend("Tim");
-        assertEquals(12.00, friend.getAmount(), 0.001);
+        assertEquals(Money.parse("12"), friend.getMoney());
     }
 
     @Test
@@ -364,7 +365,7 @@ public class AddCommandTest extends PayPalsTest {
         Activity activity = activityManager.getActivity(0);
         Person friend = activity.getFriend("Jean-Pierre");
         assertNotNull(friend);
-        assertEquals(40, friend.getAmount(), 0.001);
+        assertEquals(Money.parse("40"), friend.getMoney());
     }
 
     // Test the isValidAmount method returns false for an empty string.
@@ -451,7 +452,7 @@ public class AddCommandTest extends PayPalsTest {
         Activity activity = activityManager.getActivity(0);
         Person friend = activity.getFriend("Bob");
         assertNotNull(friend);
-        assertEquals(15, friend.getAmount(), 0.001);
+        assertEquals(Money.parse("15"), friend.getMoney());
     }
 
     // Test that payer names with extra whitespace are trimmed correctly.
@@ -481,7 +482,7 @@ public class AddCommandTest extends PayPalsTest {
         Activity activity = activityManager.getActivity(0);
         Person friend = activity.getFriend("Jane");
         assertNotNull(friend);
-        assertEquals(10000, friend.getAmount(), 0.001);
+        assertEquals(Money.parse("10000"), friend.getMoney());
     }
 
     // Test that an amount just above the limit (e.g., 10000.01) is rejected.
@@ -527,5 +528,13 @@ public class AddCommandTest extends PayPalsTest {
             assertEquals(ExceptionMessage.NUMBERS_IN_NAME.getMessage(), e.getMessage());
         }
     }
-}
 
+    @Test
+    public void execute_moreThanThousandActivities_allActivitiesAdded() throws PayPalsException {
+        for (int i = 1; i <= 1500; i++) {
+            new AddCommand("d/snack " + i + " n/Eve f/Frank a/2").execute(activityManager, false);
+        }
+        assertEquals(1500, activityManager.getSize());
+        assertEquals("snack 1500", activityManager.getActivity(1499).getDescription());
+    }
+}
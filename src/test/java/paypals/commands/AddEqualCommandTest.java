@@ -2,6 +2,7 @@ package paypals.commands;
 
 import org.junit.jupiter.api.Test;
 import paypals.Activity;
+import paypals.Money;
 import paypals.PayPalsTest;
 import paypals.Person;
 import paypals.exception.ExceptionMessage;
@@ -27,15 +28,15 @@ public class AddEqualCommandTest extends PayPalsTest {
         assertEquals("Eve", activity.getPayer().getName());
 
         Person payer = activity.getPayer();
-        assertEquals(-20, payer.getAmount());
+        assertEquals(Money.parse("-20"), payer.getMoney());
         ArrayList<Person> friends = new ArrayList<>(activity.getAllFriends());
         assertEquals(2, friends.size());
 
         for (Person person : friends) {
             if (person.getName().equals("Frank")) {
-                assertEquals(10, person.getAmount());
+                assertEquals(Money.parse("10"), person.getMoney());
             } else if (person.getName().equals("Gina")) {
-                assertEquals(10, person.getAmount());
+                assertEquals(Money.parse("10"), person.getMoney());
             }
         }
     }
@@ -52,15 +53,15 @@ public class AddEqualCommandTest extends PayPalsTest {
         assertEquals("Eve", activity.getPayer().getName());
 
         Person payer = activity.getPayer();
-        assertEquals(-20, payer.getAmount());
+        assertEquals(Money.parse("-20"), payer.getMoney());
         ArrayList<Person> friends = new ArrayList<>(activity.getAllFriends());
         assertEquals(2, friends.size());
 
         for (Person person : friends) {
             if (person.getName().equals("Frank")) {
-                assertEquals(10, person.getAmount());
+                assertEquals(Money.parse("10"), person.getMoney());
             } else if (person.getName().equals("Gina")) {
-                assertEquals(10, person.getAmount());
+                assertEquals(Money.parse("10"), person.getMoney());
             }
         }
     }
@@ -258,9 +259,9 @@ public class AddEqualCommandTest extends PayPalsTest {
         Activity activity = activityManager.getActivity(0);
         ArrayList<Person> friends = new ArrayList<>(activity.getAllFriends());
         for (Person p : friends) {
-            assertEquals(3.33, p.getAmount(), 0.01);
+            assertEquals(Money.parse("3.33"), p.getMoney());
         }
-        assertEquals(-6.67, activity.getPayer().getAmount(), 0.01);
+        assertEquals(Money.parse("-6.67"), activity.getPayer().getMoney());
     }
 
     @Test
@@ -318,8 +319,8 @@ public class AddEqualCommandTest extends PayPalsTest {
         addEqualCommand.execute(activityManager, false);
         Activity activity = activityManager.getActivity(0);
         // Check that the trimmed names exist.
-        assertEquals(60/3.0, activity.getFriend("Bob").getAmount(), 0.001);
-        assertEquals(60/3.0, activity.getFriend("Charlie").getAmount(), 0.001);
+        assertEquals(Money.parse("20"), activity.getFriend("Bob").getMoney());
+        assertEquals(Money.parse("20"), activity.getFriend("Charlie").getMoney());
     }
 
     // Test equal split with more friends and exact division.
@@ -331,10 +332,10 @@ public class AddEqualCommandTest extends PayPalsTest {
         addEqualCommand.execute(activityManager, false);
         Activity activity = activityManager.getActivity(0);
         // Each share should be 100/4 = 25.0 and payer gets -75.0.
-        assertEquals(25.0, activity.getFriend("Bob").getAmount(), 0.001);
-        assertEquals(25.0, activity.getFriend("Charlie").getAmount(), 0.001);
-        assertEquals(25.0, activity.getFriend("David").getAmount(), 0.001);
-        assertEquals(-75.0, activity.getPayer().getAmount(), 0.001);
+        assertEquals(Money.parse("25"), activity.getFriend("Bob").getMoney());
+        assertEquals(Money.parse("25"), activity.getFriend("Charlie").getMoney());
+        assertEquals(Money.parse("25"), activity.getFriend("David").getMoney());
+        assertEquals(Money.parse("-75"), activity.getPayer().getMoney());
     }
 
     // Test that the total amount value is properly trimmed when it has extra whitespace.
@@ -344,9 +345,9 @@ public class AddEqualCommandTest extends PayPalsTest {
         AddEqualCommand addEqualCommand = new AddEqualCommand(command);
         addEqualCommand.execute(activityManager, false);
         Activity activity = activityManager.getActivity(0);
-        assertEquals(20.0, activity.getFriend("Bob").getAmount(), 0.001);
-        assertEquals(20.0, activity.getFriend("Charlie").getAmount(), 0.001);
-        assertEquals(-40.0, activity.getPayer().getAmount(), 0.001);
+        assertEquals(Money.parse("20"), activity.getFriend("Bob").getMoney());
+        assertEquals(Money.parse("20"), activity.getFriend("Charlie").getMoney());
+        assertEquals(Money.parse("-40"), activity.getPayer().getMoney());
     }
 
     // Test that friend names with special characters are accepted.
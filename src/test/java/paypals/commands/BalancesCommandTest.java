@@ -0,0 +1,42 @@
+package paypals.commands;
+
+import org.junit.jupiter.api.Test;
+import paypals.PayPalsTest;
+import paypals.exception.ExceptionMessage;
+import paypals.exception.PayPalsException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BalancesCommandTest extends PayPalsTest {
+
+    @Test
+    public void execute_withParameters_throwsException() {
+        BalancesCommand balancesCommand = new BalancesCommand("n/John");
+        PayPalsException thrown = assertThrows(PayPalsException.class,
+                () -> balancesCommand.execute(activityManager, false));
+        assertException(thrown, ExceptionMessage.INVALID_FORMAT);
+    }
+
+    @Test
+    public void execute_someBalances_printedByName() throws PayPalsException {
+        callCommand(new AddCommand("d/Lunch n/John f/amy a/12 f/Bob a/8"));
+        callCommand(new PaidCommand("n/Bob i/1"));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(outputStream));
+        try {
+            new BalancesCommand("").execute(activityManager, true);
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        String output = outputStream.toString();
+        assertTrue(output.contains("amy: -$12.00" + System.lineSeparator() + "John: +$12.00"));
+        assertTrue(!output.contains("Bob"));
+    }
+}
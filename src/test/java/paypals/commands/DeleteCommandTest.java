@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import paypals.Activity;
 import paypals.ActivityManager;
+import paypals.Money;
 import paypals.PayPalsTest;
 import paypals.Person;
 import paypals.exception.ExceptionMessage;
@@ -32,14 +33,14 @@ public class DeleteCommandTest extends PayPalsTest {
     public void execute_validIdentifier_correctlyUpdatesNetOwedMap() throws PayPalsException {
         DeleteCommand command = new DeleteCommand("i/2");
         command.execute(activityManager, false);
-        HashMap<String, Double> netOwedMap = getNetOwedMap();
+        HashMap<String, Money> netOwedMap = getNetOwedMap();
         for (String key : netOwedMap.keySet()) {  //ensure set up is correct
             if (key.equals("john")) {
-                assertEquals(50.0, netOwedMap.get(key), 0.001, "For john expected 50.0");
+                assertEquals(Money.parse("50"), netOwedMap.get(key), "For john expected 50.00");
             } else if (key.equals("jane")) {
-                assertEquals(-30.0, netOwedMap.get(key), 0.001, "For jane expected -30.0");
+                assertEquals(Money.parse("-30"), netOwedMap.get(key), "For jane expected -30.00");
             } else if (key.equals("jake")) {
-                assertEquals(-20.0, netOwedMap.get(key), 0.001, "For jake expected -20.0");
+                assertEquals(Money.parse("-20"), netOwedMap.get(key), "For jake expected -20.00");
             } else {
                 fail("Unexpected key in netOwedMap: " + key);
             }
@@ -50,22 +51,22 @@ public class DeleteCommandTest extends PayPalsTest {
     public void execute_uppercaseIdentifier_correctlyUpdatesNetOwedMap() throws PayPalsException {
         DeleteCommand command = new DeleteCommand("I/2");
         command.execute(activityManager, false);
-        HashMap<String, Double> netOwedMap = getNetOwedMap();
+        HashMap<String, Money> netOwedMap = getNetOwedMap();
         for (String key : netOwedMap.keySet()) {  //ensure set up is correct
             if (key.equals("john")) {
-                assertEquals(50.0, netOwedMap.get(key), 0.001, "For john expected 50.0");
+                assertEquals(Money.parse("50"), netOwedMap.get(key), "For john expected 50.00");
             } else if (key.equals("jane")) {
-                assertEquals(-30.0, netOwedMap.get(key), 0.001, "For jane expected -30.0");
+                assertEquals(Money.parse("-30"), netOwedMap.get(key), "For jane expected -30.00");
             } else if (key.equals("jake")) {
-                assertEquals(-20.0, netOwedMap.get(key), 0.001, "For jake expected -20.0");
+                assertEquals(Money.parse("-20"), netOwedMap.get(key), "For jake expected -20.00");
             } else {
                 fail("Unexpected key in netOwedMap: " + key);
             }
         }
     }
 
-    private HashMap<String, Double> getNetOwedMap() {
-        HashMap<String, Double> netOwedMap = new HashMap<>();
+    private HashMap<String, Money> getNetOwedMap() {
+        HashMap<String, Money> netOwedMap = new HashMap<>();
         int activitiesSize = activityManager.getSize();
         for (int i = 0; i < activitiesSize; i++) {
             Activity activity = activityManager.getActivity(i);
@@ -76,9 +77,9 @@ public class DeleteCommandTest extends PayPalsTest {
                     continue;
                 }
                 String friendName = friend.getName();
-                Double amountOwed = friend.getAmount();
-                netOwedMap.put(friendName, netOwedMap.getOrDefault(friendName,0.0) - amountOwed);
-                netOwedMap.put(payerName, netOwedMap.getOrDefault(payerName,0.0) + amountOwed);
+                Money amountOwed = friend.getMoney();
+                netOwedMap.put(friendName, netOwedMap.getOrDefault(friendName, Money.ZERO).minus(amountOwed));
+                netOwedMap.put(payerName, netOwedMap.getOrDefault(payerName, Money.ZERO).plus(amountOwed));
             }
         }
         return netOwedMap;
@@ -90,7 +91,7 @@ public class DeleteCommandTest extends PayPalsTest {
         paidCommand.execute(activityManager, false);
         DeleteCommand deleteCommand = new DeleteCommand("i/2");
         deleteCommand.execute(activityManager, false);
-        HashMap<String, Double> netOwedMap = getNetOwedMap();
+        HashMap<String, Money> netOwedMap = getNetOwedMap();
         assertTrue(netOwedMap.isEmpty(), "Expected empty netOwedMap");
     }
 
@@ -100,7 +101,7 @@ public class DeleteCommandTest extends PayPalsTest {
         command.execute(activityManager, false);
         DeleteCommand command2 = new DeleteCommand("i/1");
         command2.execute(activityManager, false);
-        HashMap<String, Double> netOwedMap = getNetOwedMap();
+        HashMap<String, Money> netOwedMap = getNetOwedMap();
         assertTrue(netOwedMap.isEmpty(), "Expected empty netOwedMap");
     }
 
@@ -316,4 +317,26 @@ public class DeleteCommandTest extends PayPalsTest {
             assertEquals(ExceptionMessage.OUTOFBOUNDS_IDENTIFIER.getMessage() + "-3", e.getMessage());
         }
     }
+
+    @Test
+    public void execute_deleteFirstActivity_remainingActivityKeepsStableId() throws PayPalsException {
+        Activity dinner = activityManager.getActivity(1);
+        int dinnerId = dinner.getId();
+
+        new DeleteCommand("i/1").execute(activityManager, false);
+
+        assertEquals(dinner, activityManager.getActivity(0));
+        assertEquals(dinnerId, activityManager.getActivity(0).getId());
+        assertEquals(dinner, activityManager.getActivityById(dinnerId));
+    }
+
+    @Test
+    public void execute_deleteActivity_personIndexUpdated() throws PayPalsException {
+        assertEquals(2, activityManager.getActivities("jake").size());
+
+        new DeleteCommand("i/1").execute(activityManager, false);
+
+        assertEquals(1, activityManager.getActivities("jake").size());
+        assertEquals("dinner", activityManager.getActivities("JOHN").get(0).getDescription());
+    }
 }
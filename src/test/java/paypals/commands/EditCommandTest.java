@@ -1,5 +1,6 @@
 package paypals.commands;
 
+import paypals.Money;
 import paypals.PayPalsTest;
 import paypals.exception.ExceptionMessage;
 import paypals.exception.PayPalsException;
@@ -103,7 +104,7 @@ public class EditCommandTest extends PayPalsTest {
         EditCommand ec = new EditCommand(command);
         assertDoesNotThrow(() -> ec.execute(activityManager, false));
         // Verify that John's owed amount is updated to 35.
-        assertEquals(10.0, activityManager.getActivity(0).getFriend("John").getAmount(), 0.001);
+        assertEquals(Money.parse("10"), activityManager.getActivity(0).getFriend("John").getMoney());
     }
 
     @Test
@@ -113,7 +114,7 @@ public class EditCommandTest extends PayPalsTest {
         EditCommand ec = new EditCommand(command);
         assertDoesNotThrow(() -> ec.execute(activityManager, false));
         // Verify that John's owed amount is updated to 35.
-        assertEquals(10.0, activityManager.getActivity(0).getFriend("John").getAmount(), 0.001);
+        assertEquals(Money.parse("10"), activityManager.getActivity(0).getFriend("John").getMoney());
     }
 
     @Test
@@ -286,7 +287,7 @@ public class EditCommandTest extends PayPalsTest {
         EditCommand ec = new EditCommand(command);
         assertDoesNotThrow(() -> ec.execute(activityManager, false));
         // Verify the update. (Assumes that activityManager.getActivity(0).getFriend("John") exists.)
-        assertEquals(10000.0, activityManager.getActivity(0).getFriend("John").getAmount(), 0.001);
+        assertEquals(Money.parse("10000"), activityManager.getActivity(0).getFriend("John").getMoney());
     }
 
     // Test editing friend amount with an amount just above the limit throws a LARGE_AMOUNT exception.
@@ -475,7 +476,7 @@ public class EditCommandTest extends PayPalsTest {
         String command = "i/1 a/   25.50   o/John";
         EditCommand ec = new EditCommand(command);
         assertDoesNotThrow(() -> ec.execute(activityManager, false));
-        assertEquals(25.50, activityManager.getActivity(0).getFriend("John").getAmount(), 0.001);
+        assertEquals(Money.parse("25.5"), activityManager.getActivity(0).getFriend("John").getMoney());
     }
 
     @Test
@@ -609,4 +610,16 @@ public class EditCommandTest extends PayPalsTest {
             assertEquals(ExceptionMessage.EDIT_FORMAT_ERROR.getMessage(), e.getMessage());
         }
     }
+
+    @Test
+    public void execute_editPayerAndFriendNames_personIndexUpdated() throws PayPalsException {
+        new EditCommand("i/1 n/Janet").execute(activityManager, false);
+        new EditCommand("i/1 f/Johnny o/John").execute(activityManager, false);
+
+        assertEquals(0, activityManager.getActivities("jane").size());
+        assertEquals(0, activityManager.getActivities("John").size());
+        assertEquals(1, activityManager.getActivities("JANET").size());
+        assertEquals(1, activityManager.getActivities("johnny").size());
+        assertEquals(1, activityManager.getActivities("Jim").size());
+    }
 }
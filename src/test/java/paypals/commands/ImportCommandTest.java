@@ -0,0 +1,84 @@
+package paypals.commands;
+
+import org.junit.jupiter.api.Test;
+import paypals.Money;
+import paypals.PayPalsTest;
+import paypals.exception.ExceptionMessage;
+import paypals.exception.PayPalsException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ImportCommandTest extends PayPalsTest {
+
+    private Path writeFile(String... lines) throws IOException {
+        Path file = Files.createTempFile("paypals-import", ".txt");
+        file.toFile().deleteOnExit();
+        Files.write(file, List.of(lines));
+        return file;
+    }
+
+    @Test
+    public void execute_validFile_allCommandsImported() throws IOException, PayPalsException {
+        Path file = writeFile(
+                "# trip expenses",
+                "add d/lunch n/Alice f/Bob a/10 f/Charlie a/20",
+                "",
+                "addequal d/taxi n/Bob f/Alice a/30",
+                "paid n/Bob i/1");
+        ImportCommand command = new ImportCommand(file.toString());
+
+        command.execute(activityManager, false);
+
+        assertEquals(3, command.getImportedCount());
+        assertTrue(command.getErrors().isEmpty());
+        assertEquals(2, activityManager.getSize());
+        assertEquals(Money.parse("5"), activityManager.getNetBalance("Alice"));
+        assertEquals(Money.parse("15"), activityManager.getNetBalance("Bob"));
+    }
+
+    @Test
+    public void execute_invalidLines_errorsReportedAndOtherLinesImported() throws IOException, PayPalsException {
+        Path file = writeFile(
+                "add d/lunch n/Alice f/Bob a/10",
+                "lsit",
+                "list",
+                "add d/dinner n/Alice f/Bob a/abc",
+                "add d/snacks n/Bob f/Alice a/4");
+        ImportCommand command = new ImportCommand(file.toString());
+
+        command.execute(activityManager, false);
+
+        assertEquals(2, command.getImportedCount());
+        assertEquals(3, command.getErrors().size());
+        assertTrue(command.getErrors().get(0).startsWith("Line 2: "
+                + ExceptionMessage.INVALID_COMMAND.getMessage()));
+        assertTrue(command.getErrors().get(1).startsWith("Line 3: "
+                + ExceptionMessage.COMMAND_NOT_IMPORTABLE.getMessage()));
+        assertTrue(command.getErrors().get(2).startsWith("Line 4: "));
+        assertEquals(2, activityManager.getSize());
+    }
+
+    @Test
+    public void execute_noFile_exceptionThrown() {
+        ImportCommand command = new ImportCommand("");
+
+        PayPalsException e = assertThrows(PayPalsException.class, () -> command.execute(activityManager, false));
+        assertException(e, ExceptionMessage.NO_IMPORT_FILE);
+    }
+
+    @Test
+    public void execute_missingFile_exceptionThrown() {
+        ImportCommand command = new ImportCommand("./data/missing-import-file.txt");
+
+        PayPalsException e = assertThrows(PayPalsException.class, () -> command.execute(activityManager, false));
+        assertException(e, ExceptionMessage.IMPORT_FILE_NOT_FOUND);
+        assertEquals(0, activityManager.getSize());
+    }
+}
@@ -3,12 +3,13 @@ package paypals.commands;
 import org.junit.jupiter.api.Test;
 import paypals.Activity;
 import paypals.ActivityManager;
+import paypals.Money;
 import paypals.PayPalsTest;
 import paypals.Person;
 import paypals.exception.ExceptionMessage;
 import paypals.exception.PayPalsException;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -94,9 +95,9 @@ public class ListCommandTest extends PayPalsTest {
     @Test
     public void executeBalanceCommand_negativeBalance_worksCorrectly() {
         ActivityManager manager = new ActivityManager();
-        HashMap<String, Double> owedMap = new HashMap<>();
-        owedMap.put("Alice", 50.0);
-        manager.addActivity(new Activity("Movie", new Person("Bob", -50.0, false), owedMap));
+        ArrayList<Person> friends = new ArrayList<>();
+        friends.add(new Person("Alice", Money.parse("50"), false));
+        manager.addActivity(new Activity("Movie", new Person("Bob", Money.parse("-50"), false), friends));
         ListCommand command = new ListCommand("balance n/Alice");
         assertDoesNotThrow(() -> command.execute(manager, false));
     }
@@ -140,10 +141,10 @@ public class ListCommandTest extends PayPalsTest {
 
     //create a sample activity for testing purposes above
     private Activity createTestActivity() {
-        HashMap<String, Double> owedMap = new HashMap<>();
-        owedMap.put("Bob", 10.0);
-        owedMap.put("Charlie", 20.0);
-        return new Activity("Dinner", new Person("Alice", -30.0, false), owedMap);
+        ArrayList<Person> friends = new ArrayList<>();
+        friends.add(new Person("Bob", Money.parse("10"), false));
+        friends.add(new Person("Charlie", Money.parse("20"), false));
+        return new Activity("Dinner", new Person("Alice", Money.parse("-30"), false), friends);
     }
 
     @Test
@@ -153,4 +154,28 @@ public class ListCommandTest extends PayPalsTest {
         ListCommand command = new ListCommand("n/   Alice  ");
         assertDoesNotThrow(() -> command.execute(manager, false));
     }
+
+    @Test
+    public void getNetBalance_paidEditAndDelete_ledgerUpdated() throws PayPalsException {
+        ActivityManager manager = new ActivityManager();
+        manager.addActivity(createTestActivity());
+        assertEquals(Money.ofCents(3000), manager.getNetBalance("alice"));
+        assertEquals(Money.ofCents(-1000), manager.getNetBalance("BOB"));
+
+        new PaidCommand("n/Bob i/1").execute(manager, false);
+        assertEquals(Money.ofCents(2000), manager.getNetBalance("Alice"));
+        assertEquals(Money.ofCents(0), manager.getNetBalance("Bob"));
+
+        new EditCommand("i/1 a/25 o/Charlie").execute(manager, false);
+        assertEquals(Money.ofCents(2500), manager.getNetBalance("Alice"));
+        assertEquals(Money.ofCents(-2500), manager.getNetBalance("Charlie"));
+
+        new EditCommand("i/1 n/Dave").execute(manager, false);
+        assertEquals(Money.ofCents(0), manager.getNetBalance("Alice"));
+        assertEquals(Money.ofCents(2500), manager.getNetBalance("Dave"));
+
+        manager.deleteActivity(0);
+        assertEquals(Money.ofCents(0), manager.getNetBalance("Dave"));
+        assertEquals(Money.ofCents(0), manager.getNetBalance("Charlie"));
+    }
 }
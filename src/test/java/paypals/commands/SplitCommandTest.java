@@ -2,12 +2,17 @@ package paypals.commands;
 
 import org.junit.jupiter.api.Test;
 import paypals.PayPalsTest;
+import paypals.SettlementEngine;
+import paypals.exception.ExceptionMessage;
+import paypals.exception.PayPalsException;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class SplitCommandTest extends PayPalsTest {
 
@@ -168,6 +173,52 @@ class SplitCommandTest extends PayPalsTest {
         assertEquals(expectedOutput.trim().replace("\r\n", "\n"), outputStream.toString().trim().replace("\r\n", "\n"));
     }
 
+    @Test
+    public void testSplitCommand_optimalMode_fewestTransactions() {
+        callCommand(new AddCommand("d/dinner n/Alice f/Dan a/4 f/Eve a/3"));
+        callCommand(new AddCommand("d/movie n/Bob f/Carl a/5"));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outputStream));
+
+        callCommand(new SplitCommand("optimal"));
+
+        System.setOut(System.out);
+
+        String output = outputStream.toString().replace("\r\n", "\n");
+        assertTrue(output.contains("Dan pays Alice $4.00\n"));
+        assertTrue(output.contains("Eve pays Alice $3.00\n"));
+        assertTrue(output.contains("Carl pays Bob $5.00\n"));
+        assertEquals(4, output.trim().split("\n").length);
+    }
+
+    @Test
+    public void execute_optimalModeTooManyPeople_quickerSettlementShown() {
+        StringBuilder command = new StringBuilder("d/trip n/Alice");
+        for (int i = 0; i < SettlementEngine.MAX_OPTIMAL_PEOPLE; i++) {
+            command.append(" f/Friend").append((char) ('a' + i)).append(" a/").append(i + 1);
+        }
+        callCommand(new AddCommand(command.toString()));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outputStream));
+
+        callCommand(new SplitCommand("optimal"));
+
+        System.setOut(System.out);
+
+        String output = outputStream.toString().replace("\r\n", "\n");
+        assertTrue(output.startsWith("Too many people to find the fewest transactions"));
+        assertTrue(output.contains("Frienda pays Alice $1.00\n"));
+    }
+
+    @Test
+    public void execute_unknownMode_exceptionThrown() {
+        SplitCommand command = new SplitCommand("fastest");
+        PayPalsException e = assertThrows(PayPalsException.class, () -> command.execute(activityManager, false));
+        assertEquals(ExceptionMessage.INVALID_COMMAND.getMessage(), e.getMessage());
+    }
+
     @Test
     public void isExit_someInput_expectFalse() {
         SplitCommand command = new SplitCommand("");
@@ -0,0 +1,86 @@
+package paypals.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncLogHandlerTest {
+
+    /**
+     * Collects the messages it is given, optionally waiting for a latch before accepting the first one.
+     */
+    private static class RecordingHandler extends Handler {
+        private final ArrayList<String> messages = new ArrayList<>();
+        private final CountDownLatch gate;
+        private int flushCount;
+
+        RecordingHandler(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public synchronized void publish(LogRecord record) {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            messages.add(record.getMessage());
+        }
+
+        @Override
+        public synchronized void flush() {
+            flushCount++;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Test
+    public void flush_recordsPublished_allWrittenInOrder() {
+        RecordingHandler target = new RecordingHandler(new CountDownLatch(0));
+        AsyncLogHandler handler = new AsyncLogHandler(target, 16, AsyncLogHandler.OverflowPolicy.BLOCK);
+
+        for (int i = 0; i < 100; i++) {
+            handler.publish(new LogRecord(Level.INFO, "message " + i));
+        }
+        handler.flush();
+
+        synchronized (target) {
+            assertEquals(100, target.messages.size());
+            assertEquals("message 0", target.messages.get(0));
+            assertEquals("message 99", target.messages.get(99));
+            assertTrue(target.flushCount <= 100);
+        }
+        assertEquals(0, handler.getDroppedCount());
+        handler.close();
+    }
+
+    @Test
+    public void publish_queueFullWithDropPolicy_recordsDropped() {
+        CountDownLatch gate = new CountDownLatch(1);
+        RecordingHandler target = new RecordingHandler(gate);
+        AsyncLogHandler handler = new AsyncLogHandler(target, 4, AsyncLogHandler.OverflowPolicy.DROP);
+
+        // The writer is held up by the gate, so at most the queue and the batch being written are kept
+        for (int i = 0; i < 50; i++) {
+            handler.publish(new LogRecord(Level.INFO, "message " + i));
+        }
+        gate.countDown();
+        handler.close();
+
+        assertTrue(handler.getDroppedCount() > 0);
+        synchronized (target) {
+            assertEquals(50, target.messages.size() + handler.getDroppedCount());
+        }
+    }
+}
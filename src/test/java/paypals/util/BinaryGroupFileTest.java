@@ -0,0 +1,94 @@
+package paypals.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BinaryGroupFileTest {
+
+    private static final List<BinaryGroupFile.Record> RECORDS = List.of(
+            new BinaryGroupFile.Record("Lunch", "John", new String[] {"Bob", "Amy"},
+                    new long[] {2000, 1005}, new boolean[] {true, false}),
+            new BinaryGroupFile.Record("Taxi 🚕", "Amy",
+                    new String[] {"John", "Bob", "Cal", "Dee", "Eve", "Fay", "Gus", "Hal", "Ivy"},
+                    new long[] {1, 127, 128, 16384, 1000000, 2, 3, 4, 5},
+                    new boolean[] {false, true, false, false, true, false, false, false, true}));
+
+    private File writeRecords() throws IOException {
+        File file = File.createTempFile("paypals-binary", ".txt");
+        file.deleteOnExit();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            BinaryGroupFile.write(out.getChannel(), 42, RECORDS);
+        }
+        return file;
+    }
+
+    @Test
+    public void write_thenRead_recordsPreserved() throws IOException {
+        File file = writeRecords();
+
+        assertTrue(BinaryGroupFile.isBinary(file));
+        BinaryGroupFile.Snapshot snapshot = BinaryGroupFile.read(file, true);
+        assertEquals(42, snapshot.getCheckpoint());
+        assertTrue(snapshot.isComplete());
+        ArrayList<BinaryGroupFile.Record> records = snapshot.getRecords();
+        assertEquals(2, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(RECORDS.get(i).getDescription(), records.get(i).getDescription());
+            assertEquals(RECORDS.get(i).getPayer(), records.get(i).getPayer());
+            assertArrayEquals(RECORDS.get(i).getFriends(), records.get(i).getFriends());
+            assertArrayEquals(RECORDS.get(i).getCents(), records.get(i).getCents());
+            assertTrue(Arrays.equals(RECORDS.get(i).getHasPaid(), records.get(i).getHasPaid()));
+        }
+    }
+
+    @Test
+    public void read_truncatedFile_earlierRecordsKept() throws IOException {
+        byte[] content = Files.readAllBytes(writeRecords().toPath());
+
+        BinaryGroupFile.Snapshot snapshot = BinaryGroupFile.decode(
+                ByteBuffer.wrap(Arrays.copyOf(content, content.length - 3)));
+        assertFalse(snapshot.isComplete());
+        assertEquals(1, snapshot.getRecords().size());
+        assertEquals("Lunch", snapshot.getRecords().get(0).getDescription());
+    }
+
+    @Test
+    public void read_corruptedCounts_rejectedWithoutAllocating() throws IOException {
+        byte[] hugeCount = {(byte) 0xF0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        ByteBuffer header = ByteBuffer.allocate(16).put(new byte[] {'P', 'P', 'G', 'B', 1, 0}).put(hugeCount);
+        assertThrows(IOException.class, () -> BinaryGroupFile.decode(header.flip()));
+
+        // One name "A", then one record with an empty description, payer "A" and a huge number of friends
+        ByteBuffer record = ByteBuffer.allocate(32).put(new byte[] {'P', 'P', 'G', 'B', 1, 0, 1, 1, 'A', 1, 0, 0})
+                .put(hugeCount).put(new byte[] {0, 0});
+        BinaryGroupFile.Snapshot snapshot = BinaryGroupFile.decode(record.flip());
+        assertFalse(snapshot.isComplete());
+        assertEquals(0, snapshot.getRecords().size());
+    }
+
+    @Test
+    public void isBinary_textFile_returnsFalse() throws IOException {
+        File file = File.createTempFile("paypals-text", ".txt");
+        file.deleteOnExit();
+        String sep = String.valueOf(Character.toChars(31));
+        Files.writeString(file.toPath(), "Lunch" + sep + "John" + sep + "-20.00" + sep + "false" + sep
+                + "Bob" + sep + "20.00" + sep + "false" + sep + "\n");
+
+        assertFalse(BinaryGroupFile.isBinary(file));
+        assertThrows(IOException.class, () -> BinaryGroupFile.read(file, true));
+    }
+}
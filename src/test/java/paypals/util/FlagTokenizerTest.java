@@ -0,0 +1,92 @@
+package paypals.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FlagTokenizerTest {
+
+    @Test
+    public void findValue_flagsInAnyCase_valuesExtracted() {
+        FlagTokenizer.Tokens tokens = FlagTokenizer.tokenize("d/lunch at noon N/John f/Jane a/28");
+        assertEquals("lunch at noon", tokens.findValue('d'));
+        assertEquals("John", tokens.findValue('n'));
+        assertNull(tokens.findValue('i'));
+    }
+
+    @Test
+    public void findValue_flagJoinedToWord_notTreatedAsFlag() {
+        assertNull(FlagTokenizer.tokenize("d/lunch n/Johnf/Jane").findValue('f'));
+    }
+
+    @Test
+    public void hasMalformedFlag_multiLetterFlag_detected() {
+        assertTrue(FlagTokenizer.tokenize("d/lunch nn/John").hasMalformedFlag());
+        assertTrue(FlagTokenizer.tokenize("d/lunchn/John").hasMalformedFlag());
+        assertFalse(FlagTokenizer.tokenize("d/lunch n/John f/Jane a/28").hasMalformedFlag());
+    }
+
+    @Test
+    public void splitOnFlag_friendPairs_splitAroundFlags() {
+        assertArrayEquals(new String[] {"d/lunch n/John", "Jane a/28", "Jim a/35"},
+                FlagTokenizer.tokenize("d/lunch n/John f/Jane a/28 F/Jim a/35").splitOnFlag('f'));
+        assertArrayEquals(new String[] {"d/lunch n/John"},
+                FlagTokenizer.tokenize("d/lunch n/John f/").splitOnFlag('f'));
+    }
+
+    @Test
+    public void splitIgnoreCase_delimiterInAnyCase_trailingEmptyPartsDropped() {
+        assertArrayEquals(new String[] {"", "1 ", "2"}, FlagTokenizer.tokenize("i/1 I/2").splitIgnoreCase('i'));
+        assertArrayEquals(new String[] {"x "}, FlagTokenizer.tokenize("x a/").splitIgnoreCase('a'));
+    }
+
+    @Test
+    public void tokenize_editCommand_flagsInOrder() {
+        ArrayList<FlagTokenizer.Flag> flags = FlagTokenizer.tokenize("i/1 a/ 10 O/John").getFlags("idnfao");
+        assertEquals(3, flags.size());
+        assertEquals('i', flags.get(0).getPrefix());
+        assertEquals("10", flags.get(1).getValue());
+        assertEquals('o', flags.get(2).getPrefix());
+        assertEquals("John", flags.get(2).getValue());
+    }
+
+    @Test
+    public void splitOnFlags_friendPairs_eachPairSplitOnAmount() {
+        FlagTokenizer.Tokens tokens = FlagTokenizer.tokenize("d/lunch n/John f/Jane a/28 f/Jim a/3 a/5 f/Ann");
+        String[][] pairs = tokens.splitOnFlags('f', 'a');
+        assertEquals(3, pairs.length);
+        assertArrayEquals(new String[] {"Jane", "28"}, pairs[0]);
+        assertArrayEquals(new String[] {"Jim", "3", "5"}, pairs[1]);
+        assertArrayEquals(new String[] {"Ann"}, pairs[2]);
+    }
+
+    @Test
+    public void indexOf_flagInEitherCase_caseMatched() {
+        FlagTokenizer.Tokens tokens = FlagTokenizer.tokenize("d/lunch N/John n/Jim");
+        assertEquals(0, tokens.indexOf('d'));
+        assertEquals(8, tokens.indexOf('N'));
+        assertEquals(15, tokens.indexOf('n'));
+        assertEquals(-1, tokens.indexOf('n', 16));
+    }
+
+    @Test
+    public void parseNameAndIdentifier_validAndInvalidInput_parsedOrNull() {
+        assertArrayEquals(new String[] {"Jane", "2"},
+                FlagTokenizer.tokenize("N/Jane  i/2").parseNameAndIdentifier());
+        assertNull(FlagTokenizer.tokenize("n/Jane Doe i/2").parseNameAndIdentifier());
+        assertNull(FlagTokenizer.tokenize("n/Jane i/").parseNameAndIdentifier());
+    }
+
+    @Test
+    public void valueAfter_prefixAndValue_valueReturned() {
+        assertEquals("John", FlagTokenizer.tokenize("BALANCE n/John").valueAfter("balance n/"));
+        assertNull(FlagTokenizer.tokenize("n/Jo/hn").valueAfter("n/"));
+        assertNull(FlagTokenizer.tokenize("n/").valueAfter("n/"));
+    }
+}
@@ -0,0 +1,55 @@
+package paypals.util;
+
+import org.junit.jupiter.api.Test;
+import paypals.ActivityManager;
+import paypals.commands.AddCommand;
+import paypals.exception.PayPalsException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GroupCacheTest {
+
+    private ActivityManager groupOf(int activityCount) throws PayPalsException {
+        ActivityManager activityManager = new ActivityManager();
+        for (int i = 0; i < activityCount; i++) {
+            new AddCommand("d/Meal" + i + " n/Ann f/Tom a/5").execute(activityManager, false);
+        }
+        return activityManager;
+    }
+
+    @Test
+    public void put_moreGroupsThanLimit_leastRecentlyUsedEvicted() throws PayPalsException {
+        GroupCache cache = new GroupCache(2, 100);
+        ActivityManager trip = groupOf(1);
+        cache.put("trip", trip);
+        cache.put("dinner", groupOf(1));
+        cache.put("trip", trip);
+        cache.put("office", groupOf(1));
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.contains("trip"));
+        assertFalse(cache.contains("dinner"));
+        assertSame(trip, cache.remove("trip"));
+        assertNull(cache.remove("trip"));
+    }
+
+    @Test
+    public void put_moreActivitiesThanLimit_groupsEvictedUntilWithinLimit() throws PayPalsException {
+        GroupCache cache = new GroupCache(10, 5);
+        cache.put("trip", groupOf(3));
+        cache.put("dinner", groupOf(2));
+        cache.put("office", groupOf(2));
+
+        assertFalse(cache.contains("trip"));
+        assertTrue(cache.contains("dinner"));
+        assertTrue(cache.contains("office"));
+
+        cache.put("huge", groupOf(6));
+        assertFalse(cache.contains("huge"));
+        assertEquals(2, cache.size());
+    }
+}
@@ -0,0 +1,39 @@
+package paypals.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GroupCatalogTest {
+
+    @Test
+    public void add_duplicateName_keptOnce() {
+        GroupCatalog catalog = new GroupCatalog(new File("./data"), ".txt");
+        assertTrue(catalog.add("Trip"));
+        assertTrue(catalog.add("Dinner"));
+        assertFalse(catalog.add("Trip"));
+
+        assertEquals(2, catalog.size());
+        assertEquals("Trip", catalog.getName(1));
+        assertEquals("Dinner", catalog.getName(2));
+        assertEquals(new File("./data", "Dinner.txt"), catalog.getGroupFile("Dinner"));
+    }
+
+    @Test
+    public void remove_middleGroup_laterGroupsRenumbered() {
+        GroupCatalog catalog = new GroupCatalog(new File("./data"), ".txt");
+        catalog.add("a");
+        catalog.add("ab");
+        catalog.add("abc");
+
+        assertTrue(catalog.remove("ab"));
+        assertFalse(catalog.remove("ab"));
+        assertFalse(catalog.contains("ab"));
+        assertTrue(catalog.contains("abc"));
+        assertEquals("abc", catalog.getName(2));
+    }
+}
@@ -0,0 +1,82 @@
+package paypals.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class JournalTest {
+
+    private static final String SEPARATOR = String.valueOf(Character.toChars(31));
+
+    private static File writeJournal(String content) throws IOException {
+        File file = File.createTempFile("paypals-journal", ".journal");
+        file.deleteOnExit();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(content.getBytes(Charset.defaultCharset()));
+        }
+        return file;
+    }
+
+    @Test
+    public void readRecordsAfter_recordTornInsideCommand_tornRecordDiscarded() throws IOException {
+        File file = writeJournal("1" + SEPARATOR + "add d/Tea n/Ann f/Tom a/2" + SEPARATOR + "\n"
+                + "2" + SEPARATOR + "add d/Lunch n/Ann f/Tom a/1");
+        Journal journal = new Journal(file, SEPARATOR);
+
+        ArrayList<String> commands = journal.readRecordsAfter(0);
+
+        assertEquals(List.of("add d/Tea n/Ann f/Tom a/2"), commands);
+        assertEquals(1, journal.getLastSequence());
+    }
+
+    @Test
+    public void peekRecordsAfter_tornRecord_fileLeftUnchanged() throws IOException {
+        File file = writeJournal("1" + SEPARATOR + "delete i/1" + SEPARATOR + "\n"
+                + "2" + SEPARATOR + "delete i/2" + SEPARATOR + "\n" + "3" + SEPARATOR + "dele");
+        long length = file.length();
+        Journal journal = new Journal(file, SEPARATOR);
+
+        ArrayList<String> commands = journal.peekRecordsAfter(1);
+
+        assertEquals(List.of("delete i/2"), commands);
+        assertEquals(length, file.length());
+        assertEquals(0, journal.getLastSequence());
+    }
+
+    @Test
+    public void append_afterTornRecord_newRecordKeptSeparate() throws IOException {
+        File file = writeJournal("1" + SEPARATOR + "delete i/1" + SEPARATOR + "\n" + "2" + SEPARATOR + "dele");
+        Journal journal = new Journal(file, SEPARATOR);
+
+        journal.append("delete i/2");
+        journal.close();
+
+        assertEquals(List.of("delete i/1", "delete i/2"), new Journal(file, SEPARATOR).readRecordsAfter(0));
+        assertEquals(List.of("delete i/2"), new Journal(file, SEPARATOR).readRecordsAfter(1));
+    }
+
+    @Test
+    public void truncateUpTo_recordsAfterCheckpoint_laterRecordsKept() throws IOException {
+        File file = writeJournal("1" + SEPARATOR + "delete i/1" + SEPARATOR + "\n"
+                + "2" + SEPARATOR + "delete i/2" + SEPARATOR + "\n");
+        Journal journal = new Journal(file, SEPARATOR);
+
+        journal.truncateUpTo(1);
+
+        assertEquals(1, journal.getRecordCount());
+        assertEquals(List.of("delete i/2"), new Journal(file, SEPARATOR).readRecordsAfter(0));
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+
+        journal.truncateUpTo(2);
+
+        assertFalse(file.exists());
+    }
+}
@@ -0,0 +1,67 @@
+package paypals.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class MappedFileReaderTest {
+
+    private static final char SEPARATOR = (char) 31;
+
+    private File writeFile(String content) throws IOException {
+        File file = File.createTempFile("paypals-mapped", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private ArrayList<String[]> readAll(File file) throws IOException {
+        MappedFileReader reader = new MappedFileReader(file, StandardCharsets.UTF_8, true);
+        ArrayList<String[]> records = new ArrayList<>();
+        String[] record;
+        while ((record = reader.readRecord(SEPARATOR)) != null) {
+            records.add(record);
+        }
+        assertNull(reader.readRecord(SEPARATOR));
+        return records;
+    }
+
+    @Test
+    public void readRecord_mixedLines_sameAsSplit() throws IOException {
+        String sep = String.valueOf(SEPARATOR);
+        String[] lines = {"Lunch" + sep + "Jöhn" + sep + "-20.00" + sep + "false" + sep, "", sep + "checkpoint"
+                + sep + "12", "one field", sep + sep, "a" + sep + sep + "b" + sep + sep};
+        File file = writeFile(String.join("\n", lines[0], lines[1], lines[2]) + "\r\n"
+                + String.join("\r", lines[3], lines[4]) + "\n" + lines[5]);
+
+        ArrayList<String[]> records = readAll(file);
+
+        assertEquals(lines.length, records.size());
+        for (int i = 0; i < lines.length; i++) {
+            assertArrayEquals(lines[i].split(String.valueOf(SEPARATOR)), records.get(i));
+        }
+    }
+
+    @Test
+    public void readRecord_largeFile_readThroughMapping() throws IOException {
+        StringBuilder content = new StringBuilder();
+        int lineCount = 0;
+        while (content.length() <= MappedFileReader.MAPPING_THRESHOLD) {
+            content.append("Taxi").append(SEPARATOR).append("Amy").append(SEPARATOR).append(lineCount).append('\n');
+            lineCount++;
+        }
+
+        ArrayList<String[]> records = readAll(writeFile(content.toString()));
+
+        assertEquals(lineCount, records.size());
+        assertArrayEquals(new String[] {"Taxi", "Amy", String.valueOf(lineCount - 1)}, records.get(lineCount - 1));
+    }
+}
@@ -3,15 +3,21 @@ package paypals.util;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.util.ArrayList;
+import java.util.List;
 import java.io.FileWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
 
 import org.junit.jupiter.api.condition.EnabledOnOs;
 import org.junit.jupiter.api.condition.OS;
 import paypals.Activity;
 import paypals.ActivityManager;
+import paypals.Money;
 import paypals.PayPalsTest;
 import paypals.commands.AddCommand;
+import paypals.commands.EditCommand;
 import paypals.commands.PaidCommand;
 import paypals.exception.ExceptionMessage;
 import paypals.exception.PayPalsException;
@@ -21,6 +27,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class StorageTest extends PayPalsTest {
     @Test
@@ -74,8 +81,8 @@ public class StorageTest extends PayPalsTest {
             c.execute(activityManager, false);
             storage.save(activityManager);
             storage.load("trip", result);
-            ArrayList<Activity> expected = activityManager.getActivityList();
-            ArrayList<Activity> actual = result.getActivityList();
+            List<Activity> expected = activityManager.getActivityList();
+            List<Activity> actual = result.getActivityList();
             assertEquals(expected.size(), actual.size(), "The number of activities should match");
             storage.deleteDir(f);
         } catch (Exception e) {
@@ -351,4 +358,486 @@ public class StorageTest extends PayPalsTest {
         storage.deleteDir(new File("./data"));
     }
 
+    @Test
+    public void persist_journaledMode_replaysCommandsOnLoad() throws Exception {
+        Storage storage = new Storage(true);
+        ActivityManager am1 = new ActivityManager();
+        storage.load("journalTest", am1);
+
+        String[] commands = {"add d/Coffee n/Ann f/Tom a/5.00", "add d/Lunch n/Tom f/Ann a/12", "paid n/Tom i/1"};
+        for (String command : commands) {
+            new Parser().decodeCommand(command).execute(am1, false);
+            storage.persist(command, am1);
+        }
+
+        File groupFile = new File("./data/journalTest.txt");
+        File journalFile = new File("./data/journalTest.journal");
+        assertEquals(0, groupFile.length(), "Group file should not be rewritten in journaled mode");
+        assertTrue(journalFile.exists());
+
+        ActivityManager am2 = new ActivityManager();
+        storage.load("journalTest", am2);
+        assertEquals(2, am2.getSize());
+        assertTrue(am2.getActivity(0).getFriend("Tom").hasPaid());
+        storage.close();
+
+        storage.deleteDir(new File("./data"));
+    }
+
+    @Test
+    public void save_journaledMode_checkpointSkipsCompactedRecords() throws Exception {
+        Storage storage = new Storage(true);
+        ActivityManager am1 = new ActivityManager();
+        storage.load("checkpointTest", am1);
+
+        String command = "add d/Coffee n/Ann f/Tom a/5.00";
+        new AddCommand(command).execute(am1, false);
+        storage.persist(command, am1);
+        storage.save(am1);
+        assertFalse(new File("./data/checkpointTest.journal").exists(), "Journal should be folded into snapshot");
+
+        ActivityManager am2 = new ActivityManager();
+        new Storage().load("checkpointTest", am2);
+        assertEquals(1, am2.getSize());
+        storage.close();
+
+        storage.deleteDir(new File("./data"));
+    }
+
+    @Test
+    public void load_corruptedLineBetweenValidLines_skipsOnlyCorruptedLine() throws Exception {
+        Storage storage = new Storage();
+        ActivityManager am = new ActivityManager();
+        File file = new File("./data/skipTest.txt");
+        file.getParentFile().mkdirs();
+
+        String sep = String.valueOf(Character.toChars(31));
+        try (FileWriter fw = new FileWriter(file)) {
+            fw.write("Lunch" + sep + "John" + sep + "-30.0" + sep + "false" + sep + "Bob" + sep + "20.0" + sep
+                    + "true" + sep + "Amy" + sep + "10.0" + sep + "false" + sep + "\n");
+            fw.write("Dinner" + sep + "John" + sep + "-5.0" + sep + "false" + sep + "J0hn" + sep + "5.0" + sep
+                    + "false" + sep + "\n");
+            fw.write("Taxi" + sep + "Amy" + sep + "-7.5" + sep + "false" + sep + "John" + sep + "7.5" + sep
+                    + "false" + sep + "\n");
+        }
+        File master = new File("./data/master-savefile.txt");
+        try (FileWriter masterWriter = new FileWriter(master, true)) {
+            masterWriter.write("skipTest\n");
+        }
+
+        PayPalsException ex = assertThrows(PayPalsException.class, () -> storage.load("skipTest", am));
+        assertEquals(ExceptionMessage.LOAD_ERROR.getMessage(), ex.getMessage());
+        assertEquals(2, am.getSize());
+        assertTrue(am.getActivity(0).getFriend("bob").hasPaid());
+        assertFalse(am.getActivity(0).getFriend("Amy").hasPaid());
+        assertEquals(Money.parse("-30"), am.getActivity(0).getPayer().getMoney());
+        assertEquals("Taxi", am.getActivity(1).getDescription());
+
+        storage.deleteDir(new File("./data"));
+    }
+
+    @Test
+    public void load_journalAfterCorruptedActivity_recordsKeptNotReplayed() throws Exception {
+        Storage storage = new Storage(true);
+        ActivityManager am = new ActivityManager();
+        storage.load("replayTest", am);
+        for (String description : new String[] {"one", "two", "three"}) {
+            new AddCommand("d/" + description + " n/Ann f/Tom a/1").execute(am, false);
+        }
+        storage.save(am);
+        new Parser().decodeCommand("delete i/2").execute(am, false);
+        storage.persist("delete i/2", am);
+        storage.close();
+
+        File groupFile = new File("./data/replayTest.txt");
+        List<String> lines = new ArrayList<>(Files.readAllLines(groupFile.toPath(), Charset.defaultCharset()));
+        lines.replaceAll(line -> line.startsWith("one") ? "corrupted" : line);
+        Files.write(groupFile.toPath(), lines, Charset.defaultCharset());
+
+        Storage reloaded = new Storage(true);
+        ActivityManager loaded = new ActivityManager();
+        PayPalsException ex = assertThrows(PayPalsException.class, () -> reloaded.load("replayTest", loaded));
+        assertEquals(ExceptionMessage.LOAD_ERROR.getMessage(), ex.getMessage());
+        assertEquals(2, loaded.getSize());
+        assertEquals("two", loaded.getActivity(0).getDescription());
+        assertEquals("three", loaded.getActivity(1).getDescription());
+        assertFalse(new File("./data/replayTest.journal").exists());
+        File unreplayedFile = new File("./data/replayTest.journal.unreplayed");
+        String sep = String.valueOf(Character.toChars(31));
+        assertEquals(List.of("delete i/2"), new Journal(unreplayedFile, sep).readRecordsAfter(0));
+
+        // The records kept aside are not replayed again, and later records go on from them
+        new Parser().decodeCommand("delete i/1").execute(loaded, false);
+        reloaded.persist("delete i/1", loaded);
+        reloaded.close();
+        ActivityManager again = new ActivityManager();
+        new Storage(true).load("replayTest", again);
+        assertEquals(1, again.getSize());
+        assertEquals("three", again.getActivity(0).getDescription());
+
+        storage.deleteDir(new File("./data"));
+    }
+
+    @Test
+    public void load_journalRecordFailsToReplay_journalKeptAndErrorShown() throws Exception {
+        Storage storage = new Storage();
+        ActivityManager am = new ActivityManager();
+        storage.load("failedReplayTest", am);
+        new AddCommand("d/Lunch n/Ann f/Tom a/1").execute(am, false);
+        storage.save(am);
+        storage.close();
+        String sep = String.valueOf(Character.toChars(31));
+        try (FileWriter fw = new FileWriter("./data/failedReplayTest.journal")) {
+            fw.write("1" + sep + "delete i/1" + sep + "\n" + "2" + sep + "delete i/1" + sep + "\n");
+        }
+
+        Storage reloaded = new Storage();
+        ActivityManager loaded = new ActivityManager();
+        PayPalsException ex = assertThrows(PayPalsException.class, () -> reloaded.load("failedReplayTest", loaded));
+        assertEquals(ExceptionMessage.LOAD_ERROR.getMessage(), ex.getMessage());
+        assertEquals(0, loaded.getSize());
+        File unreplayedFile = new File("./data/failedReplayTest.journal.unreplayed");
+        assertEquals(List.of("delete i/1", "delete i/1"), new Journal(unreplayedFile, sep).readRecordsAfter(0));
+        reloaded.close();
+
+        storage.deleteDir(new File("./data"));
+    }
+
+    @Test
+    public void save_binaryMode_loadsInEitherMode() throws Exception {
+        Storage storage = new Storage(false, true);
+        ActivityManager am1 = new ActivityManager();
+        storage.load("binaryTest", am1);
+        new AddCommand("d/Coffee n/Ann f/Tom a/5.05 f/Bea a/7").execute(am1, false);
+        new AddCommand("d/Lunch n/Tom f/Ann a/12").execute(am1, false);
+        new PaidCommand("n/Bea i/1").execute(am1, false);
+        storage.save(am1);
+
+        ActivityManager am2 = new ActivityManager();
+        new Storage().load("binaryTest", am2);
+        assertEquals(2, am2.getSize());
+        assertEquals("Coffee", am2.getActivity(0).getDescription());
+        assertEquals(Money.parse("-12.05"), am2.getActivity(0).getPayer().getMoney());
+        assertTrue(am2.getActivity(0).getFriend("Bea").hasPaid());
+        assertFalse(am2.getActivity(0).getFriend("Tom").hasPaid());
+        assertEquals(am1.getNetBalances(), am2.getNetBalances());
+
+        storage.deleteDir(new File("./data"));
+    }
+
+    @Test
+    public void load_binaryRecordsBreakingAddRules_skippedLikeTextLines() throws Exception {
+        Storage storage = new Storage();
+        ActivityManager am = new ActivityManager();
+        File file = new File("./data/binarySkipTest.txt");
+        file.getParentFile().mkdirs();
+        List<BinaryGroupFile.Record> records = List.of(
+                new BinaryGroupFile.Record("Lunch", "John", new String[] {"Bob"}, new long[] {2000},
+                        new boolean[] {true}),
+                new BinaryGroupFile.Record("Rent", "John", new String[] {"Amy"}, new long[] {1000001},
+                        new boolean[] {false}),
+                new BinaryGroupFile.Record("Dinner", "John", new String[] {"J0hn"}, new long[] {500},
+                        new boolean[] {false}),
+                new BinaryGroupFile.Record("Taxi", "Amy", new String[] {"John"}, new long[] {1000000},
+                        new boolean[] {false}));
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            BinaryGroupFile.write(out.getChannel(), 0, records);
+        }
+        try (FileWriter masterWriter = new FileWriter(new File("./data/master-savefile.txt"), true)) {
+            masterWriter.write("binarySkipTest\n");
+        }
+
+        PayPalsException ex = assertThrows(PayPalsException.class, () -> storage.load("binarySkipTest", am));
+        assertEquals(ExceptionMessage.LOAD_ERROR.getMessage(), ex.getMessage());
+        assertEquals(2, am.getSize());
+        assertTrue(am.getActivity(0).getFriend("Bob").hasPaid());
+        assertEquals(Money.LARGE_AMOUNT_LIMIT, am.getActivity(1).getFriend("John").getMoney());
+
+        storage.deleteDir(new File("./data"));
+    }
+
+    @Test
+    public void save_existingGroupFile_replacedWithoutTemporaryFile() throws Exception {
+        Storage storage = new Storage();
+        ActivityManager am = new ActivityManager();
+        storage.load("atomicTest", am);
+        new AddCommand("d/Coffee n/Ann f/Tom a/5.00").execute(am, false);
+        storage.save(am);
+        new AddCommand("d/Lunch n/Tom f/Ann a/12").execute(am, false);
+        storage.save(am);
+
+        assertFalse(new File("./data/atomicTest.txt.tmp").exists());
+        ActivityManager loaded = new ActivityManager();
+        storage.load("atomicTest", loaded);
+        assertEquals(2, loaded.getSize());
+
+        storage.load("otherGroup", new ActivityManager());
+        storage.delete("atomicTest", am);
+        assertFalse(new File("./data/master-savefile.txt.tmp").exists());
+        assertEquals(1, new Storage().getGroupNames().size());
+
+        storage.deleteDir(new File("./data"));
+    }
+
+    @Test
+    public void load_newGroupMasterFileNotWritten_groupNotAdded() throws Exception {
+        Storage storage = new Storage();
+        storage.load("firstGroup", new ActivityManager());
+        File blocker = new File("./data/master-savefile.txt.tmp");
+        assertTrue(blocker.mkdir());
+
+        PayPalsException ex = assertThrows(PayPalsException.class,
+                () -> storage.load("secondGroup", new ActivityManager()));
+        assertEquals(ExceptionMessage.SAVE_NOT_WRITTEN.getMessage(), ex.getMessage());
+        assertThrows(PayPalsException.class, () -> storage.containsFile("secondGroup"));
+        assertEquals(List.of("firstGroup"), new Storage().getGroupNames());
+
+        assertTrue(blocker.delete());
+        storage.load("secondGroup", new ActivityManager());
+        assertEquals(List.of("firstGroup", "secondGroup"), new Storage().getGroupNames());
+
+        storage.deleteDir(new File("./data"));
+    }
+
+    @Test
+    public void save_largeGroupJustLoaded_fileReplaced() throws Exception {
+        Storage storage = new Storage();
+        ActivityManager am = new ActivityManager();
+        storage.load("largeTest", am);
+        String description = "Dinner".repeat(40);
+        while (new File("./data/largeTest.txt").length() < MappedFileReader.MAPPING_THRESHOLD) {
+            for (int i = 0; i < 1000; i++) {
+                new AddCommand("d/" + description + " n/Ann f/Tom a/5.00").execute(am, false);
+            }
+            storage.save(am);
+        }
+        int size = am.getSize();
+
+        Storage reopened = new Storage();
+        ActivityManager loaded = new ActivityManager();
+        reopened.load("largeTest", loaded);
+        new AddCommand("d/Coffee n/Tom f/Ann a/3").execute(loaded, false);
+        reopened.save(loaded);
+
+        assertFalse(new File("./data/largeTest.txt.tmp").exists());
+        ActivityManager reloaded = new ActivityManager();
+        new Storage().load("largeTest", reloaded);
+        assertEquals(size + 1, reloaded.getSize());
+        assertEquals("Coffee", reloaded.getActivity(size).getDescription());
+
+        storage.deleteDir(new File("./data"));
+    }
+
+    @Test
+    public void save_someActivitiesChanged_changesWrittenAndCleanActivitiesReused() throws Exception {
+        Storage storage = new Storage();
+        ActivityManager am = new ActivityManager();
+        storage.load("dirtyTest", am);
+        new AddCommand("d/Coffee n/Ann f/Tom a/5.00").execute(am, false);
+        new AddCommand("d/Lunch n/Tom f/Ann a/12").execute(am, false);
+        storage.save(am);
+        assertFalse(am.getActivity(0).isDirty());
+        assertFalse(am.getActivity(1).isDirty());
+
+        long version = am.getVersion();
+        new EditCommand("i/1 d/Coffee").execute(am, false);
+        assertEquals(version, am.getVersion());
+        assertFalse(am.getActivity(0).isDirty());
+
+        new EditCommand("i/2 d/Dinner").execute(am, false);
+        assertTrue(am.getActivity(1).isDirty());
+        assertTrue(am.getVersion() > version);
+        storage.save(am);
+        assertFalse(am.getActivity(1).isDirty());
+
+        ActivityManager loaded = new ActivityManager();
+        new Storage().load("dirtyTest", loaded);
+        assertEquals("Coffee", loaded.getActivity(0).getDescription());
+        assertEquals("Dinner", loaded.getActivity(1).getDescription());
+
+        storage.deleteDir(new File("./data"));
+    }
+
+    @Test
+    public void persist_writeBehindMode_changesWrittenBeforeNextLoad() throws Exception {
+        Storage storage = new Storage(false, false, true);
+        ActivityManager am = new ActivityManager();
+        storage.load("writeBehindTest", am);
+        String[] commands = {"d/Coffee n/Ann f/Tom a/5.00", "d/Lunch n/Tom f/Ann a/12", "d/Taxi n/Bea f/Ann a/8"};
+        for (String command : commands) {
+            new AddCommand(command).execute(am, false);
+            storage.persist("add " + command, am);
+        }
+        new PaidCommand("n/Tom i/1").execute(am, false);
+        storage.persist("paid n/Tom i/1", am);
+
+        // Switching groups finishes the writes of the previous group
+        storage.load("otherGroup", new ActivityManager());
+        ActivityManager loaded = new ActivityManager();
+        new Storage().load("writeBehindTest", loaded);
+        assertEquals(3, loaded.getSize());
+        assertTrue(loaded.getActivity(0).getFriend("Tom").hasPaid());
+
+        ActivityManager reopened = new ActivityManager();
+        storage.load("writeBehindTest", reopened);
+        new AddCommand("d/Dinner n/Ann f/Bea a/20").execute(reopened, false);
+        storage.persist("add d/Dinner n/Ann f/Bea a/20", reopened);
+        storage.close();
+        ActivityManager closed = new ActivityManager();
+        new Storage().load("writeBehindTest", closed);
+        assertEquals(4, closed.getSize());
+
+        storage.deleteDir(new File("./data"));
+    }
+
+    @Test
+    public void unloadAndClose_backgroundWriteFailed_retriedOrReported() throws Exception {
+        Storage storage = new Storage(false, false, true);
+        ActivityManager am = new ActivityManager();
+        storage.load("failedWriteTest", am);
+        File blocker = new File("./data/failedWriteTest.txt.tmp");
+        assertTrue(blocker.mkdir());
+        new AddCommand("d/Coffee n/Ann f/Tom a/5.00").execute(am, false);
+        storage.persist("add d/Coffee n/Ann f/Tom a/5.00", am);
+
+        PayPalsException exception = assertThrows(PayPalsException.class, () -> storage.unload(am));
+        assertEquals(ExceptionMessage.SAVE_NOT_WRITTEN.getMessage(), exception.getMessage());
+        assertEquals(1, am.getSize());
+
+        assertTrue(blocker.delete());
+        storage.unload(am);
+        ActivityManager loaded = new ActivityManager();
+        new Storage().load("failedWriteTest", loaded);
+        assertEquals(1, loaded.getSize());
+
+        storage.load("failedWriteTest", am);
+        assertTrue(blocker.mkdir());
+        new AddCommand("d/Lunch n/Tom f/Ann a/12").execute(am, false);
+        storage.persist("add d/Lunch n/Tom f/Ann a/12", am);
+        exception = assertThrows(PayPalsException.class, storage::close);
+        assertEquals(ExceptionMessage.SAVE_NOT_WRITTEN.getMessage(), exception.getMessage());
+
+        assertTrue(blocker.delete());
+        storage.deleteDir(new File("./data"));
+    }
+
+    @Test
+    public void delete_nameContainedInOtherGroup_otherGroupKept() throws Exception {
+        Storage storage = new Storage();
+        storage.load("trip", new ActivityManager());
+        storage.load("tripToJapan", new ActivityManager());
+        storage.delete("trip", new ActivityManager());
+
+        Storage reopened = new Storage();
+        assertEquals(1, reopened.getGroupNames().size());
+        assertTrue(reopened.containsFile("tripToJapan"));
+
+        storage.deleteDir(new File("./data"));
+    }
+
+    @Test
+    public void load_groupLeftEarlier_activitiesTakenFromCache() throws Exception {
+        Storage storage = new Storage();
+        ActivityManager am = new ActivityManager();
+        storage.load("cacheTest", am);
+        new AddCommand("d/Coffee n/Ann f/Tom a/5.00").execute(am, false);
+        storage.persist("add d/Coffee n/Ann f/Tom a/5.00", am);
+        Activity coffee = am.getActivity(0);
+
+        storage.unload(am);
+        assertEquals(0, am.getSize());
+        storage.load("otherGroup", am);
+        storage.unload(am);
+        storage.load("cacheTest", am);
+        assertEquals(1, am.getSize());
+        assertSame(coffee, am.getActivity(0));
+
+        // The cached activities still belong to the manager, so changes are indexed and saved as usual
+        new PaidCommand("n/Tom i/1").execute(am, false);
+        assertEquals(0, am.getNetBalance("Ann").getCents());
+        storage.persist("paid n/Tom i/1", am);
+        ActivityManager loaded = new ActivityManager();
+        new Storage().load("cacheTest", loaded);
+        assertTrue(loaded.getActivity(0).getFriend("Tom").hasPaid());
+
+        storage.unload(am);
+        storage.delete("cacheTest", am);
+        storage.load("cacheTest", am);
+        assertEquals(0, am.getSize());
+
+        storage.deleteDir(new File("./data"));
+    }
+
+    @Test
+    public void load_journaledGroupFromCache_recordsNumberedAfterCheckpoint() throws Exception {
+        Storage storage = new Storage(true);
+        ActivityManager am = new ActivityManager();
+        storage.load("cacheJournalTest", am);
+        new AddCommand("d/Coffee n/Ann f/Tom a/5.00").execute(am, false);
+        storage.persist("add d/Coffee n/Ann f/Tom a/5.00", am);
+        storage.save(am);
+
+        storage.unload(am);
+        storage.load("otherGroup", am);
+        storage.unload(am);
+        storage.load("cacheJournalTest", am);
+        new AddCommand("d/Lunch n/Tom f/Ann a/12").execute(am, false);
+        storage.persist("add d/Lunch n/Tom f/Ann a/12", am);
+        storage.close();
+
+        ActivityManager loaded = new ActivityManager();
+        new Storage(true).load("cacheJournalTest", loaded);
+        assertEquals(2, loaded.getSize());
+
+        storage.deleteDir(new File("./data"));
+    }
+
+    @Test
+    public void unload_changeNotWritten_groupNotCached() throws Exception {
+        Storage storage = new Storage();
+        ActivityManager am = new ActivityManager();
+        storage.load("unwrittenTest", am);
+        File blocker = new File("./data/unwrittenTest.txt.tmp");
+        assertTrue(blocker.mkdir());
+        new AddCommand("d/Coffee n/Ann f/Tom a/5.00").execute(am, false);
+        assertThrows(PayPalsException.class, () -> storage.persist("add d/Coffee n/Ann f/Tom a/5.00", am));
+        assertTrue(blocker.delete());
+
+        storage.unload(am);
+        assertEquals(0, am.getSize());
+        storage.load("unwrittenTest", am);
+        assertEquals(0, am.getSize());
+
+        storage.deleteDir(new File("./data"));
+    }
+
+    @Test
+    public void getBalancesAcrossGroups_groupsOnDiskAndInMemory_balancesAddedUp() throws Exception {
+        Storage journaledStorage = new Storage(true);
+        ActivityManager trip = new ActivityManager();
+        journaledStorage.load("tripGroup", trip);
+        new AddCommand("d/Hotel n/Ann f/Tom a/30").execute(trip, false);
+        journaledStorage.persist("add d/Hotel n/Ann f/Tom a/30", trip);
+        journaledStorage.close();
+
+        Storage storage = new Storage();
+        ActivityManager dinner = new ActivityManager();
+        storage.load("dinnerGroup", dinner);
+        new AddCommand("d/Dinner n/tom f/Ann a/10 f/Bea a/5").execute(dinner, false);
+        storage.persist("add d/Dinner n/tom f/Ann a/10 f/Bea a/5", dinner);
+        storage.unload(dinner);
+        ActivityManager office = new ActivityManager();
+        storage.load("officeGroup", office);
+        new AddCommand("d/Coffee n/Bea f/Ann a/2").execute(office, false);
+
+        GroupBalances balances = storage.getBalancesAcrossGroups(office);
+        assertEquals(3, balances.getGroupCount());
+        assertEquals(0, balances.getUnreadableGroupCount());
+        assertEquals(3, balances.getBalances().size());
+        assertEquals(1800, balances.getBalances().get("Ann").getCents());
+        assertEquals(-1500, balances.getBalances().get("TOM").getCents());
+        assertEquals(-300, balances.getBalances().get("Bea").getCents());
+
+        storage.deleteDir(new File("./data"));
+    }
 }